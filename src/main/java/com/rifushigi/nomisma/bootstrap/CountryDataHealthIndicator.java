@@ -0,0 +1,31 @@
+package com.rifushigi.nomisma.bootstrap;
+
+import com.rifushigi.nomisma.snapshot.CountrySnapshotHolder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Part of the readiness group: an instance only reports ready once a non-empty
+ * country snapshot has been published, whether it came from the seed file or from
+ * the first refresh.
+ */
+@Component
+@RequiredArgsConstructor
+public class CountryDataHealthIndicator implements HealthIndicator {
+
+    private final CountrySnapshotHolder snapshotHolder;
+
+    @Override
+    public Health health() {
+        return snapshotHolder.peek()
+                .filter(snapshot -> snapshot.size() > 0)
+                .map(snapshot -> Health.up()
+                        .withDetail("countries", snapshot.size())
+                        .withDetail("version", snapshot.version())
+                        .withDetail("built_at", snapshot.builtAt().toString())
+                        .build())
+                .orElseGet(() -> Health.outOfService().withDetail("countries", 0).build());
+    }
+}
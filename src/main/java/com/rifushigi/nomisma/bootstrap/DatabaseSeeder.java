@@ -1,12 +1,31 @@
 package com.rifushigi.nomisma.bootstrap;
 
+import com.rifushigi.nomisma.config.RefreshConfig;
+import com.rifushigi.nomisma.refresh.RefreshScheduler;
+import com.rifushigi.nomisma.repository.CountryBulkRepository;
 import com.rifushigi.nomisma.repository.CountryRepository;
 import com.rifushigi.nomisma.service.impl.CountryServiceImpl;
+import com.rifushigi.nomisma.snapshot.CountrySeedFile;
+import com.rifushigi.nomisma.snapshot.CountrySnapshotHolder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * Seeds an empty database from the local {@link CountrySeedFile} instead of the network,
+ * so a new instance is ready in the time it takes to bulk-load the file. A refresh is then
+ * started in the background to catch up with upstream. Without a seed file the instance
+ * starts empty and reports ready once that refresh has published data. Either way the
+ * {@link RefreshScheduler}s take over from there; a rates-only refresh runs right away so
+ * conversions are available without waiting for the next full refresh.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -14,15 +33,56 @@ public class DatabaseSeeder implements CommandLineRunner {
 
     private final CountryServiceImpl countryService;
     private final CountryRepository countryRepository;
+    private final CountryBulkRepository countryBulkRepository;
+    private final CountrySnapshotHolder snapshotHolder;
+    private final CountrySeedFile seedFile;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier(RefreshConfig.COUNTRY_REFRESH_SCHEDULE)
+    private final RefreshScheduler refreshScheduler;
+    @Qualifier(RefreshConfig.RATES_REFRESH_SCHEDULE)
+    private final RefreshScheduler ratesRefreshScheduler;
 
     @Override
     public void run(String... args) {
-        if (countryRepository.count() == 0) {
-            log.info("Seeding countries...");
-            countryService.fetchAllCountries();
-            log.info("Database seeding completed!");
-        } else {
+        if (countryRepository.count() > 0) {
             log.info("Database already contains data. Skipping seeding.");
+            snapshotHolder.rebuild();
+            countryService.warmUpListings();
+            refreshScheduler.start(countryService::startRefreshJob, false);
+            ratesRefreshScheduler.start(countryService::startRatesRefreshJob, true);
+            return;
+        }
+
+        long start = System.nanoTime();
+        log.info("Seeding countries...");
+        Optional<CountrySeedFile.Header> seed = seed();
+        snapshotHolder.rebuild();
+        countryService.warmUpListings();
+        if (seed.isPresent()) {
+            log.info("Database seeding completed from snapshot version {} in {} ms",
+                    seed.get().snapshotVersion(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            log.info("No seed file available; the initial data will come from the background refresh");
+        }
+
+        refreshScheduler.start(countryService::startRefreshJob, true);
+        ratesRefreshScheduler.start(countryService::startRatesRefreshJob, true);
+    }
+
+    /**
+     * Loads the first seed that reads cleanly. Each seed is loaded in its own transaction, so
+     * a seed that turns out to be corrupt part way through is rolled back rather than leaving
+     * the table partly filled, and the next one is tried.
+     */
+    private Optional<CountrySeedFile.Header> seed() {
+        for (Resource source : seedFile.sources()) {
+            try {
+                return Optional.ofNullable(transactionTemplate.execute(_ ->
+                        seedFile.load(source, CountryBulkRepository.ROWS_PER_STATEMENT, countryBulkRepository::upsert)));
+            } catch (UncheckedIOException | IllegalStateException e) {
+                log.warn("Seed::ignoring {}: {}", source.getDescription(), e.getMessage());
+            }
         }
+        return Optional.empty();
     }
 }
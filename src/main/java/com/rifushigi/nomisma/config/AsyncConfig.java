@@ -1,8 +0,0 @@
-package com.rifushigi.nomisma.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
-
-@EnableAsync
-@Configuration
-public class AsyncConfig { }
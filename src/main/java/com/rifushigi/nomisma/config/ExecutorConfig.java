@@ -0,0 +1,98 @@
+package com.rifushigi.nomisma.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Named executors for background work, each configured under
+ * {@code nomisma.executor.<name>.*} and metered by {@link ExecutorMetrics}.
+ * I/O-bound stages default to virtual threads behind a concurrency limit; rendering is
+ * CPU-bound and gets a bounded platform pool that rejects work once its queue is full.
+ * On shutdown each executor stops taking tasks and waits up to {@code await-termination}
+ * for the running ones.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ExecutorConfig {
+
+    public static final String REFRESH_EXECUTOR = "refreshExecutor";
+    public static final String RENDER_EXECUTOR = "renderExecutor";
+    public static final String WARMUP_EXECUTOR = "warmupExecutor";
+    public static final String REFRESH_SCHEDULER = "refreshScheduler";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Refresh jobs: upstream calls and database writes.
+     */
+    @Bean(REFRESH_EXECUTOR)
+    public AsyncTaskExecutor refreshExecutor() {
+        return executor("refresh", true, 2, 0, 60);
+    }
+
+    /**
+     * Summary image rendering.
+     */
+    @Bean(RENDER_EXECUTOR)
+    public AsyncTaskExecutor renderExecutor() {
+        return executor("render", false, Runtime.getRuntime().availableProcessors(), 16, 30);
+    }
+
+    /**
+     * Pre-serializing listings after a new snapshot is published.
+     */
+    @Bean(WARMUP_EXECUTOR)
+    public AsyncTaskExecutor warmupExecutor() {
+        return executor("warmup", true, 2, 0, 10);
+    }
+
+    /**
+     * Timer for scheduled refreshes; its tasks only hand a job to the refresh executor.
+     * Pending runs are dropped on shutdown.
+     */
+    @Bean(REFRESH_SCHEDULER)
+    public ThreadPoolTaskScheduler refreshScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("refresh-scheduler-");
+        return scheduler;
+    }
+
+    private AsyncTaskExecutor executor(String name, boolean virtualThreads, int poolSize, int queueCapacity, int awaitSeconds) {
+        String prefix = "nomisma.executor." + name + ".";
+        boolean virtual = environment.getProperty(prefix + "virtual-threads", Boolean.class, virtualThreads);
+        int size = environment.getProperty(prefix + "pool-size", Integer.class, poolSize);
+        int capacity = environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity);
+        int await = environment.getProperty(prefix + "await-termination", Integer.class, awaitSeconds);
+        ExecutorMetrics metrics = new ExecutorMetrics(name, meterRegistry);
+
+        if (virtual) {
+            // No queue: submitters beyond the limit wait for a slot and are counted as queued
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + "-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(size);
+            executor.setTaskDecorator(metrics);
+            executor.setTaskTerminationTimeout(await * 1_000L);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(capacity);
+        executor.setTaskDecorator(metrics);
+        executor.setRejectedExecutionHandler(metrics.rejectionPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(await);
+        return executor;
+    }
+}
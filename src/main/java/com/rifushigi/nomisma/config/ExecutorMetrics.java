@@ -0,0 +1,99 @@
+package com.rifushigi.nomisma.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters one named executor by decorating its tasks, so pooled and virtual-thread
+ * executors report alike, tagged {@code name}:
+ * {@code nomisma.executor.active} and {@code nomisma.executor.queued} gauges,
+ * {@code nomisma.executor.wait} (submit to start) and {@code nomisma.executor.duration}
+ * timers, and a {@code nomisma.executor.rejected} counter.
+ */
+final class ExecutorMetrics implements TaskDecorator {
+
+    private final String name;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer wait;
+    private final Timer duration;
+    private final Counter rejected;
+
+    ExecutorMetrics(String name, MeterRegistry registry) {
+        this.name = name;
+        Gauge.builder("nomisma.executor.active", active, AtomicInteger::get)
+                .description("Tasks currently running")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("nomisma.executor.queued", queued, AtomicInteger::get)
+                .description("Tasks submitted but not yet started")
+                .tag("name", name)
+                .register(registry);
+        this.wait = Timer.builder("nomisma.executor.wait")
+                .description("Time from submission until a task starts")
+                .tag("name", name)
+                .register(registry);
+        this.duration = Timer.builder("nomisma.executor.duration")
+                .description("Task run time")
+                .tag("name", name)
+                .register(registry);
+        this.rejected = Counter.builder("nomisma.executor.rejected")
+                .description("Tasks refused because the queue was full")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        queued.incrementAndGet();
+        return new Tracked(task, System.nanoTime());
+    }
+
+    /**
+     * Aborts like {@link java.util.concurrent.ThreadPoolExecutor.AbortPolicy}, after
+     * taking the refused task off the queued count.
+     */
+    RejectedExecutionHandler rejectionPolicy() {
+        return (task, executor) -> {
+            if (task instanceof Tracked) {
+                queued.decrementAndGet();
+            }
+            rejected.increment();
+            throw new RejectedExecutionException("Executor '" + name + "' is saturated: "
+                    + executor.getActiveCount() + " active, " + executor.getQueue().size() + " queued");
+        };
+    }
+
+    private final class Tracked implements Runnable {
+
+        private final Runnable task;
+        private final long submittedAt;
+
+        private Tracked(Runnable task, long submittedAt) {
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            wait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+                duration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.rifushigi.nomisma.config;
+
+import com.rifushigi.nomisma.refresh.RefreshCadence;
+import com.rifushigi.nomisma.refresh.RefreshJobCoordinator;
+import com.rifushigi.nomisma.refresh.RefreshScheduler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * The two kinds of refresh, each with its own single-flight coordinator and schedule:
+ * a full refresh of countries and rates, configured under {@code nomisma.refresh.schedule.*},
+ * and a rates-only refresh under {@code nomisma.refresh.rates-schedule.*}. Having separate
+ * coordinators keeps a full refresh from being folded into a running rates-only job; the
+ * jobs themselves still write the table one at a time.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RefreshConfig {
+
+    public static final String COUNTRY_REFRESH_JOBS = "countryRefreshJobs";
+    public static final String RATES_REFRESH_JOBS = "ratesRefreshJobs";
+    public static final String COUNTRY_REFRESH_SCHEDULE = "countryRefreshSchedule";
+    public static final String RATES_REFRESH_SCHEDULE = "ratesRefreshSchedule";
+
+    private final Environment environment;
+
+    @Bean(COUNTRY_REFRESH_JOBS)
+    public RefreshJobCoordinator countryRefreshJobs(@Qualifier(ExecutorConfig.REFRESH_EXECUTOR) Executor executor) {
+        return new RefreshJobCoordinator(executor);
+    }
+
+    @Bean(RATES_REFRESH_JOBS)
+    public RefreshJobCoordinator ratesRefreshJobs(@Qualifier(ExecutorConfig.REFRESH_EXECUTOR) Executor executor) {
+        return new RefreshJobCoordinator(executor);
+    }
+
+    @Bean(COUNTRY_REFRESH_SCHEDULE)
+    public RefreshScheduler countryRefreshSchedule(@Qualifier(ExecutorConfig.REFRESH_SCHEDULER) TaskScheduler scheduler) {
+        return schedule("refresh", "schedule", scheduler, Duration.ofHours(1));
+    }
+
+    @Bean(RATES_REFRESH_SCHEDULE)
+    public RefreshScheduler ratesRefreshSchedule(@Qualifier(ExecutorConfig.REFRESH_SCHEDULER) TaskScheduler scheduler) {
+        return schedule("rates refresh", "rates-schedule", scheduler, Duration.ofMinutes(10));
+    }
+
+    private RefreshScheduler schedule(String name, String key, TaskScheduler scheduler, Duration interval) {
+        String prefix = "nomisma.refresh." + key + ".";
+        RefreshCadence cadence = new RefreshCadence(
+                environment.getProperty(prefix + "interval", Duration.class, interval),
+                environment.getProperty(prefix + "jitter", Double.class, 0.1),
+                environment.getProperty(prefix + "initial-backoff", Duration.class, Duration.ofSeconds(30)),
+                environment.getProperty(prefix + "max-backoff", Duration.class, Duration.ofMinutes(30)));
+        return new RefreshScheduler(name, scheduler, environment.getProperty(prefix + "enabled", Boolean.class, true), cadence);
+    }
+}
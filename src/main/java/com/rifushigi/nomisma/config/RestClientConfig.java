@@ -1,10 +1,13 @@
 package com.rifushigi.nomisma.config;
 
+import com.rifushigi.nomisma.upstream.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import java.net.http.HttpClient;
+import java.time.Clock;
 import java.time.Duration;
 
 @Configuration
@@ -31,4 +34,18 @@ public class RestClientConfig {
                 .requestFactory(new JdkClientHttpRequestFactory(httpClient))
                 .build();
     }
+
+    @Bean
+    public CircuitBreaker countryApiBreaker(
+            @Value("${nomisma.upstream.breaker.failure-threshold:3}") int failureThreshold,
+            @Value("${nomisma.upstream.breaker.open-duration:60s}") Duration openDuration) {
+        return new CircuitBreaker("countries", failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    @Bean
+    public CircuitBreaker exchangeRateApiBreaker(
+            @Value("${nomisma.upstream.breaker.failure-threshold:3}") int failureThreshold,
+            @Value("${nomisma.upstream.breaker.open-duration:60s}") Duration openDuration) {
+        return new CircuitBreaker("exchange-rates", failureThreshold, openDuration, Clock.systemUTC());
+    }
 }
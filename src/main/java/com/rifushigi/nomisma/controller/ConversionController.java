@@ -0,0 +1,35 @@
+package com.rifushigi.nomisma.controller;
+
+import com.rifushigi.nomisma.dto.ConversionBatchRequestDTO;
+import com.rifushigi.nomisma.dto.ConversionBatchResponseDTO;
+import com.rifushigi.nomisma.dto.ConversionResponseDTO;
+import com.rifushigi.nomisma.service.impl.CurrencyConversionServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/")
+public class ConversionController {
+
+    private final CurrencyConversionServiceImpl conversionService;
+
+    @GetMapping("convert")
+    public ResponseEntity<ConversionResponseDTO> convert(
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "amount", required = false) String amount) {
+        return ResponseEntity.ok(conversionService.convert(from, to, amount));
+    }
+
+    @PostMapping("convert/batch")
+    public ResponseEntity<ConversionBatchResponseDTO> convertBatch(@RequestBody ConversionBatchRequestDTO request) {
+        return ResponseEntity.ok(conversionService.convertBatch(request));
+    }
+}
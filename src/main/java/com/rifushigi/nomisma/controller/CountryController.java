@@ -1,14 +1,19 @@
 package com.rifushigi.nomisma.controller;
 
 import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
 import com.rifushigi.nomisma.dto.CountrySummaryResponseDTO;
-import com.rifushigi.nomisma.entity.Country;
-import com.rifushigi.nomisma.exception.NotFoundException;
+import com.rifushigi.nomisma.dto.RefreshJobResponseDTO;
+import com.rifushigi.nomisma.image.ChartFormat;
+import com.rifushigi.nomisma.image.ChartRequest;
+import com.rifushigi.nomisma.image.SummaryImage;
 import com.rifushigi.nomisma.service.impl.CountryServiceImpl;
+import com.rifushigi.nomisma.snapshot.CachedResponse;
+import com.rifushigi.nomisma.snapshot.CountryListing;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,11 +21,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.util.List;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequiredArgsConstructor
@@ -29,16 +36,80 @@ public class CountryController {
 
     private final CountryServiceImpl countryService;
 
+    /**
+     * Serves pre-serialized bytes with a strong ETag; Spring answers a matching
+     * {@code If-None-Match} with 304 and no body. Unpaged listings above the stream
+     * threshold are written row by row to the response instead of being buffered.
+     */
     @GetMapping("countries")
-    public ResponseEntity<List<Country>> getCountries(CountryFilterDTO filters){
-        List<Country> response = countryService.getAllCountries(filters);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getCountries(
+            CountryFilterDTO filters,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) throws IOException {
+        Optional<CountryListing> large = countryService.getLargeCountryListing(filters);
+        if (large.isPresent()) {
+            // Written directly: this method returns byte[] bodies, so a stream cannot be the body
+            CountryListing listing = large.get();
+            String etag = listing.etag("json");
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            servletResponse.setHeader(HttpHeaders.ETAG, etag);
+            listing.writeJsonArray(servletResponse.getOutputStream());
+            return null;
+        }
+
+        CachedResponse response = countryService.getCountriesResponse(filters);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (response.hasGzip() && acceptsGzip(acceptEncoding)) {
+            return builder
+                    .eTag(response.gzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(response.gzipBody());
+        }
+        return builder.eTag(response.etag()).body(response.body());
+    }
+
+    /**
+     * Streams one JSON object per line straight from the snapshot; memory use does
+     * not depend on how many rows match.
+     */
+    @GetMapping(path = "countries", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCountries(CountryFilterDTO filters, WebRequest webRequest){
+        CountryListing listing = countryService.getCountryListing(filters);
+        String etag = listing.etag("ndjson");
+        // Streamed bodies skip Spring's ETag check, so a match is answered here
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .eTag(etag)
+                .body(listing::writeNdjson);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String value = coding.trim().toLowerCase();
+            if (value.startsWith("gzip") && !value.replace(" ", "").endsWith(";q=0")) {
+                return true;
+            }
+        }
+        return false;
     }
 
 
     @GetMapping(path = "countries/{name}")
-    public ResponseEntity<Country> getCountryByName(@PathVariable("name") String name){
-        Country response = countryService.getCountryByName(name);
+    public ResponseEntity<CountryResponseDTO> getCountryByName(@PathVariable("name") String name){
+        CountryResponseDTO response = countryService.getCountryByName(name);
         return ResponseEntity.ok(response);
     }
 
@@ -57,26 +128,66 @@ public class CountryController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Serves a summary chart with a strong ETag. Clients are asked to revalidate on every
+     * use, which a matching {@code If-None-Match} answers with 304. Without parameters this
+     * is the PNG rendered at the last refresh, served from memory; any parameter, or an
+     * {@code Accept} header that prefers SVG, selects a chart from the render cache,
+     * rendered on the render pool without holding the request thread.
+     */
     @GetMapping("countries/image")
-    public ResponseEntity<InputStreamSource> getSummaryImage() {
-        File imageFile = countryService.getSummaryImage();
-        InputStreamSource resource;
-        try {
-            resource = new InputStreamResource(new FileInputStream(imageFile));
-        } catch (FileNotFoundException e) {
-            throw new NotFoundException("Summary image not found", e.getMessage());
+    public CompletableFuture<ResponseEntity<byte[]>> getSummaryImage(
+            @RequestParam(value = "region", required = false) String region,
+            @RequestParam(value = "metric", required = false) String metric,
+            @RequestParam(value = "top", required = false) String top,
+            @RequestParam(value = "width", required = false) String width,
+            @RequestParam(value = "height", required = false) String height,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ChartRequest request = ChartRequest.of(region, metric, top, width, height, format, ChartFormat.negotiate(accept));
+        if (request.isDefault()) {
+            return CompletableFuture.completedFuture(imageResponse(countryService.getSummaryImage(), request.format()));
         }
+        return countryService.getSummaryChart(request).thenApply(image -> imageResponse(image, request.format()));
+    }
 
+    private static ResponseEntity<byte[]> imageResponse(SummaryImage image, ChartFormat format) {
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"summary.png\"")
-                .contentLength(imageFile.length())
-                .contentType(MediaType.IMAGE_PNG)
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"summary." + format.extension() + "\"")
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(image.etag())
+                .lastModified(image.renderedAt())
+                .contentLength(image.bytes().length)
+                .contentType(format.mediaType())
+                .body(image.bytes());
     }
 
+    /**
+     * Accepts a refresh and answers with its job; triggers that arrive while a refresh is
+     * in flight get the running job instead of starting another one.
+     */
     @PostMapping("countries/refresh")
-    public ResponseEntity<Void> refresh(){
-        countryService.refreshCountries();
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<RefreshJobResponseDTO> refresh(){
+        RefreshJobResponseDTO job = countryService.refreshCountries();
+        return ResponseEntity.accepted()
+                .location(URI.create("/countries/refresh/" + job.id()))
+                .body(job);
+    }
+
+    /**
+     * Accepts a rates-only refresh. Its job is looked up like any other refresh job.
+     */
+    @PostMapping("countries/refresh/rates")
+    public ResponseEntity<RefreshJobResponseDTO> refreshRates(){
+        RefreshJobResponseDTO job = countryService.refreshRates();
+        return ResponseEntity.accepted()
+                .location(URI.create("/countries/refresh/" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping("countries/refresh/{id}")
+    public ResponseEntity<RefreshJobResponseDTO> getRefreshJob(@PathVariable("id") String id) {
+        return ResponseEntity.ok(countryService.getRefreshJob(id));
     }
 }
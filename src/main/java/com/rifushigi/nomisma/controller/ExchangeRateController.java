@@ -0,0 +1,28 @@
+package com.rifushigi.nomisma.controller;
+
+import com.rifushigi.nomisma.dto.ExchangeRateSeriesDTO;
+import com.rifushigi.nomisma.service.impl.ExchangeRateServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/")
+public class ExchangeRateController {
+
+    private final ExchangeRateServiceImpl exchangeRateService;
+
+    @GetMapping("rates/{currency}/history")
+    public ResponseEntity<ExchangeRateSeriesDTO> getHistory(
+            @PathVariable("currency") String currency,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "interval", required = false) String interval) {
+        return ResponseEntity.ok(exchangeRateService.getHistory(currency, from, to, interval));
+    }
+}
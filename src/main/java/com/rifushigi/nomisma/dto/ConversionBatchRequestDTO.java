@@ -0,0 +1,9 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record ConversionBatchRequestDTO(
+        @JsonProperty("conversions") List<ConversionRequestDTO> conversions
+) { }
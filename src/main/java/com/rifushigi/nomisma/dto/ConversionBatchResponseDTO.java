@@ -0,0 +1,9 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record ConversionBatchResponseDTO(
+        @JsonProperty("rates_version") long ratesVersion,
+        @JsonProperty("rates_published_at") String ratesPublishedAt,
+        @JsonProperty("results") double[] results
+) { }
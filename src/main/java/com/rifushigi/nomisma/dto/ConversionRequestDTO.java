@@ -0,0 +1,9 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record ConversionRequestDTO(
+        @JsonProperty("from") String from,
+        @JsonProperty("to") String to,
+        @JsonProperty("amount") Double amount
+) { }
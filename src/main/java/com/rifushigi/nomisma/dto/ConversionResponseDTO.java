@@ -0,0 +1,13 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record ConversionResponseDTO(
+        @JsonProperty("from") String from,
+        @JsonProperty("to") String to,
+        @JsonProperty("amount") double amount,
+        @JsonProperty("rate") double rate,
+        @JsonProperty("result") double result,
+        @JsonProperty("rates_version") long ratesVersion,
+        @JsonProperty("rates_published_at") String ratesPublishedAt
+) { }
@@ -1,3 +1,8 @@
 package com.rifushigi.nomisma.dto;
 
-public record CountryFilterDTO(String region, String currency, String sort) { }
+public record CountryFilterDTO(String region, String currency, String sort, Integer limit, String cursor) {
+
+    public boolean isPaged() {
+        return limit != null || (cursor != null && !cursor.isBlank());
+    }
+}
@@ -0,0 +1,10 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record CountryPageResponseDTO(
+        List<CountryResponseDTO> data,
+        @JsonProperty("next_cursor") String nextCursor
+) { }
@@ -0,0 +1,35 @@
+package com.rifushigi.nomisma.dto;
+
+import com.rifushigi.nomisma.entity.Country;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record CountryResponseDTO(
+        UUID id,
+        String name,
+        String capital,
+        String region,
+        Long population,
+        String currencyCode,
+        BigDecimal exchangeRate,
+        BigDecimal estimatedGdp,
+        String flagUrl,
+        Instant lastRefreshedAt
+) {
+    public static CountryResponseDTO from(Country country) {
+        return new CountryResponseDTO(
+                country.getId(),
+                country.getName(),
+                country.getCapital(),
+                country.getRegion(),
+                country.getPopulation(),
+                country.getCurrencyCode(),
+                country.getExchangeRate(),
+                country.getEstimatedGdp(),
+                country.getFlagUrl(),
+                country.getLastRefreshedAt()
+        );
+    }
+}
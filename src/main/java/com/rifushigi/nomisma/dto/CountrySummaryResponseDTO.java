@@ -2,7 +2,12 @@ package com.rifushigi.nomisma.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.List;
+
 public record CountrySummaryResponseDTO(
         @JsonProperty("total_countries") Long totalCountries,
-        @JsonProperty("last_refreshed_at") String lastRefreshedAt
+        @JsonProperty("last_refreshed_at") String lastRefreshedAt,
+        @JsonProperty("next_refresh_at") String nextRefreshAt,
+        @JsonProperty("next_rates_refresh_at") String nextRatesRefreshAt,
+        @JsonProperty("upstreams") List<UpstreamStatusDTO> upstreams
 ) { }
@@ -0,0 +1,14 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+public record ExchangeRateCandleDTO(
+        @JsonProperty("time") String time,
+        @JsonProperty("open") BigDecimal open,
+        @JsonProperty("high") BigDecimal high,
+        @JsonProperty("low") BigDecimal low,
+        @JsonProperty("close") BigDecimal close,
+        @JsonProperty("samples") int samples
+) { }
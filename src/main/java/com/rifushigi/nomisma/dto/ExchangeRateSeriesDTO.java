@@ -0,0 +1,14 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record ExchangeRateSeriesDTO(
+        @JsonProperty("currency") String currency,
+        @JsonProperty("base") String base,
+        @JsonProperty("interval") String interval,
+        @JsonProperty("from") String from,
+        @JsonProperty("to") String to,
+        @JsonProperty("points") List<ExchangeRateCandleDTO> points
+) { }
@@ -0,0 +1,31 @@
+package com.rifushigi.nomisma.dto;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Result of one combined upstream fetch. The countries payload stays on disk at
+ * {@code countriesBody}; {@code fingerprint} identifies the pair of payloads, so two
+ * fetches with the same fingerprint carry the same data.
+ */
+public record ExternalDataDTO(
+        Path countriesBody,
+        ExternalExchangeRateDTO exchangeRate,
+        String fingerprint,
+        Duration countriesFetchTime,
+        Duration exchangeRateFetchTime
+) {
+
+    private static final char SEPARATOR = ':';
+
+    public static String fingerprint(String countriesFingerprint, String ratesFingerprint) {
+        return countriesFingerprint + SEPARATOR + ratesFingerprint;
+    }
+
+    /**
+     * {@code fingerprint} with its rates half replaced by {@code ratesFingerprint}.
+     */
+    public static String withRates(String fingerprint, String ratesFingerprint) {
+        return fingerprint(fingerprint.substring(0, fingerprint.indexOf(SEPARATOR)), ratesFingerprint);
+    }
+}
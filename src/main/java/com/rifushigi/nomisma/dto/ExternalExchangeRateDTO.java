@@ -9,5 +9,7 @@ import java.util.Map;
 public record ExternalExchangeRateDTO(
     String result,
     @JsonProperty("base_code") String baseCode,
-    Map<String, Double> rates
+    Map<String, Double> rates,
+    @JsonProperty("time_last_update_unix") Long timeLastUpdateUnix,
+    @JsonProperty("time_next_update_unix") Long timeNextUpdateUnix
 ) { }
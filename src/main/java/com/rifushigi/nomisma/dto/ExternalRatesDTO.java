@@ -0,0 +1,10 @@
+package com.rifushigi.nomisma.dto;
+
+/**
+ * Result of a rates-only upstream fetch; {@code fingerprint} identifies the rates payload,
+ * as the rates half of {@link ExternalDataDTO#fingerprint()} does.
+ */
+public record ExternalRatesDTO(
+        ExternalExchangeRateDTO exchangeRate,
+        String fingerprint
+) { }
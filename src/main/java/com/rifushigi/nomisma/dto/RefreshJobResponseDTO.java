@@ -0,0 +1,19 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record RefreshJobResponseDTO(
+        @JsonProperty("id") String id,
+        @JsonProperty("phase") String phase,
+        @JsonProperty("requested_at") String requestedAt,
+        @JsonProperty("started_at") String startedAt,
+        @JsonProperty("finished_at") String finishedAt,
+        @JsonProperty("duration_ms") Long durationMs,
+        @JsonProperty("inserted") int inserted,
+        @JsonProperty("updated") int updated,
+        @JsonProperty("unchanged") int unchanged,
+        @JsonProperty("triggers") int triggers,
+        @JsonProperty("connection_hold_ms") long connectionHoldMs,
+        @JsonProperty("longest_connection_hold_ms") long longestConnectionHoldMs,
+        @JsonProperty("error") String error
+) { }
@@ -0,0 +1,10 @@
+package com.rifushigi.nomisma.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record UpstreamStatusDTO(
+        @JsonProperty("name") String name,
+        @JsonProperty("state") String state,
+        @JsonProperty("consecutive_failures") int consecutiveFailures,
+        @JsonProperty("retry_at") String retryAt
+) { }
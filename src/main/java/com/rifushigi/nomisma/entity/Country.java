@@ -5,12 +5,22 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.LastModifiedDate;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
 
 @Entity
+@Table(name = "country", indexes = {
+        @Index(name = "idx_country_region", columnList = "region"),
+        @Index(name = "idx_country_currency_code", columnList = "currency_code"),
+        @Index(name = "idx_country_estimated_gdp", columnList = "estimated_gdp"),
+        @Index(name = "idx_country_population", columnList = "population")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -18,12 +28,16 @@ import java.time.Instant;
 public class Country {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(columnDefinition = "BINARY(16)")
+    private UUID id;
 
     @Column(nullable = false)
     private String name;
 
+    @Column(name = "name_key", nullable = false, unique = true)
+    private String nameKey;
+
     private String capital;
 
     private String region;
@@ -31,10 +45,10 @@ public class Country {
     @Column(nullable = false)
     private Long population;
 
-    @Column(name = "currency_code")
+    @Column(name = "currency_code", length = 3, columnDefinition = "CHAR(3)")
     private String currencyCode;
 
-    @Column(name = "exchange_rate")
+    @Column(name = "exchange_rate", precision = 20, scale = 6)
     private BigDecimal exchangeRate;
 
     @Column(name = "estimated_gdp", precision = 20, scale = 2)
@@ -45,4 +59,28 @@ public class Country {
 
     @LastModifiedDate
     private Instant lastRefreshedAt;
+
+    @Column(name = "content_hash", columnDefinition = "BINARY(16)")
+    private byte[] contentHash;
+
+    @PrePersist
+    void assignIdAndDerivedKeys() {
+        if (id == null) {
+            id = TimeOrderedUuid.generate();
+        }
+        syncDerivedKeys();
+    }
+
+    @PreUpdate
+    void syncDerivedKeys() {
+        nameKey = normalizeName(name);
+        contentHash = CountryFingerprint.of(this);
+    }
+
+    /**
+     * Case-folded lookup key backing the unique {@code name_key} index.
+     */
+    public static String normalizeName(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
 }
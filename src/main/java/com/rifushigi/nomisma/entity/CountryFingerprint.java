@@ -0,0 +1,46 @@
+package com.rifushigi.nomisma.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Content fingerprint of the upstream fields of a country: everything the refresh
+ * copies from the countries API. The exchange rate is left out and compared on its own,
+ * since the rates-only refresh rewrites it in place; so are the derived GDP estimate and
+ * the refresh timestamp, so an unchanged upstream record always hashes the same.
+ * Stored as the first 16 bytes of a SHA-256 digest.
+ */
+public final class CountryFingerprint {
+
+    public static final int LENGTH = 16;
+
+    private static final char SEPARATOR = '\u001f';
+    private static final char NULL = '\u0000';
+
+    private CountryFingerprint() { }
+
+    public static byte[] of(Country country) {
+        StringBuilder content = new StringBuilder(160);
+        append(content, country.getName());
+        append(content, country.getCapital());
+        append(content, country.getRegion());
+        append(content, country.getPopulation() == null ? null : country.getPopulation().toString());
+        append(content, country.getCurrencyCode());
+        append(content, country.getFlagUrl());
+        return Arrays.copyOf(sha256().digest(content.toString().getBytes(StandardCharsets.UTF_8)), LENGTH);
+    }
+
+    private static void append(StringBuilder content, String value) {
+        content.append(value == null ? String.valueOf(NULL) : value).append(SEPARATOR);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
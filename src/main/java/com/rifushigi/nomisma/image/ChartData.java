@@ -0,0 +1,11 @@
+package com.rifushigi.nomisma.image;
+
+import java.util.List;
+
+/**
+ * What a summary chart shows: the subtitle, the metadata lines and the ranked bars.
+ */
+public record ChartData(String subtitle, String lastRefreshed, long totalCountries, List<Bar> bars) {
+
+    public record Bar(String name, double value, String label) { }
+}
@@ -0,0 +1,80 @@
+package com.rifushigi.nomisma.image;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Output formats of a summary chart.
+ */
+public enum ChartFormat {
+    PNG("png", MediaType.IMAGE_PNG),
+    SVG("svg", MediaType.valueOf("image/svg+xml"));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ChartFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Matches the file extension, ignoring case; {@code null} when unknown.
+     */
+    public static ChartFormat parse(String value) {
+        for (ChartFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The format an {@code Accept} header asks for: SVG only when it is accepted with a
+     * higher quality than PNG, wildcards included, so browsers that list
+     * {@code image/svg+xml} next to {@code image/*} keep getting PNG. A missing or
+     * malformed header means PNG.
+     */
+    public static ChartFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return PNG;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException _) {
+            return PNG;
+        }
+        return quality(accepted, SVG) > quality(accepted, PNG) ? SVG : PNG;
+    }
+
+    // The quality of the most specific range that includes the format, as HTTP specifies
+    private static double quality(List<MediaType> accepted, ChartFormat format) {
+        double quality = 0;
+        int specificity = -1;
+        for (MediaType type : accepted) {
+            if (!type.includes(format.mediaType)) {
+                continue;
+            }
+            int rangeSpecificity = type.isWildcardType() ? 0 : type.isWildcardSubtype() ? 1 : 2;
+            if (rangeSpecificity > specificity) {
+                specificity = rangeSpecificity;
+                quality = type.getQualityValue();
+            } else if (rangeSpecificity == specificity) {
+                quality = Math.max(quality, type.getQualityValue());
+            }
+        }
+        return quality;
+    }
+}
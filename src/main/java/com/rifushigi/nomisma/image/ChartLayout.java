@@ -0,0 +1,54 @@
+package com.rifushigi.nomisma.image;
+
+/**
+ * Geometry of a summary chart for a given size and bar count. The header, card and
+ * first bar sit at fixed offsets; bars share the rest of the height, spaced as in the
+ * original 900x700 five-bar layout when there is room and squeezed, with smaller text,
+ * when there is not.
+ */
+record ChartLayout(int width, int height, int barStartY, int barSpacing, int barHeight,
+                   int nameFontSize, int valueFontSize, int rankSize) {
+
+    static final int BAR_START_Y = 300;
+    static final int FULL_BAR_SPACING = 75;
+    static final int MIN_BAR_SPACING = 40;
+
+    // Height below the first bar that is not available to the others: the 700px layout fits 5 bars at 75
+    private static final int RESERVED_HEIGHT = 400;
+
+    static ChartLayout of(ChartRequest request) {
+        int spacing = barSpacing(request.top(), request.height());
+        return new ChartLayout(
+                request.width(),
+                request.height(),
+                BAR_START_Y,
+                spacing,
+                spacing * 40 / FULL_BAR_SPACING,
+                Math.max(11, spacing * 17 / FULL_BAR_SPACING),
+                Math.max(11, spacing * 16 / FULL_BAR_SPACING),
+                Math.max(20, spacing * 35 / FULL_BAR_SPACING));
+    }
+
+    static int barSpacing(int bars, int height) {
+        if (bars <= 1) {
+            return FULL_BAR_SPACING;
+        }
+        return Math.min(FULL_BAR_SPACING, (height - RESERVED_HEIGHT) / (bars - 1));
+    }
+
+    static int minHeight(int bars) {
+        return Math.max(ChartRequest.MIN_HEIGHT, RESERVED_HEIGHT + (bars - 1) * MIN_BAR_SPACING);
+    }
+
+    int rankFontSize() {
+        return Math.max(11, rankSize * 18 / 35);
+    }
+
+    int cardHeight() {
+        return height - 250;
+    }
+
+    int barY(int index) {
+        return barStartY + index * barSpacing;
+    }
+}
@@ -0,0 +1,83 @@
+package com.rifushigi.nomisma.image;
+
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.snapshot.CountrySortKey;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Country fields a summary chart can rank by, with how their values are labelled.
+ */
+public enum ChartMetric {
+    GDP("gdp", "Estimated GDP", CountrySortKey.ESTIMATED_GDP, CountryResponseDTO::estimatedGdp),
+    POPULATION("population", "Population", CountrySortKey.POPULATION, country ->
+            country.population() == null ? null : BigDecimal.valueOf(country.population())),
+    EXCHANGE_RATE("exchange_rate", "Exchange Rate", CountrySortKey.EXCHANGE_RATE, CountryResponseDTO::exchangeRate);
+
+    private final String apiName;
+    private final String label;
+    private final CountrySortKey sortKey;
+    private final Function<CountryResponseDTO, BigDecimal> extractor;
+
+    ChartMetric(String apiName, String label, CountrySortKey sortKey, Function<CountryResponseDTO, BigDecimal> extractor) {
+        this.apiName = apiName;
+        this.label = label;
+        this.sortKey = sortKey;
+        this.extractor = extractor;
+    }
+
+    public String apiName() {
+        return apiName;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public CountrySortKey sortKey() {
+        return sortKey;
+    }
+
+    public BigDecimal valueOf(CountryResponseDTO country) {
+        return extractor.apply(country);
+    }
+
+    public String format(double value) {
+        NumberFormat format = NumberFormat.getNumberInstance(Locale.US);
+        return switch (this) {
+            case GDP -> "$" + abbreviate(value, format);
+            case POPULATION -> abbreviate(value, format);
+            case EXCHANGE_RATE -> {
+                format.setMaximumFractionDigits(value < 10 ? 4 : 2);
+                yield format.format(value);
+            }
+        };
+    }
+
+    /**
+     * Matches the API name or the enum name, ignoring case; {@code null} when unknown.
+     */
+    public static ChartMetric parse(String value) {
+        for (ChartMetric metric : values()) {
+            if (metric.apiName.equalsIgnoreCase(value) || metric.name().equalsIgnoreCase(value)) {
+                return metric;
+            }
+        }
+        return null;
+    }
+
+    private static String abbreviate(double value, NumberFormat format) {
+        if (value >= 1_000_000_000_000.0) {
+            return format.format(value / 1_000_000_000_000.0) + "T";
+        } else if (value >= 1_000_000_000.0) {
+            return format.format(value / 1_000_000_000.0) + "B";
+        } else if (value >= 1_000_000.0) {
+            return format.format(value / 1_000_000.0) + "M";
+        } else {
+            return format.format(value);
+        }
+    }
+}
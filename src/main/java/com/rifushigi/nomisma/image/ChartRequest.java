@@ -0,0 +1,77 @@
+package com.rifushigi.nomisma.image;
+
+import com.rifushigi.nomisma.exception.FieldValidationException;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Normalized parameters of a summary chart: the region to rank within ({@code null} for
+ * all), the metric, how many countries and the output size and format. Equal requests
+ * render the same chart for the same dataset, so this is also the render cache key.
+ */
+public record ChartRequest(String region, ChartMetric metric, int top, int width, int height, ChartFormat format) {
+
+    public static final ChartRequest DEFAULT = new ChartRequest(null, ChartMetric.GDP, 5, 900, 700, ChartFormat.PNG);
+
+    public static final int MAX_TOP = 20;
+    public static final int MIN_WIDTH = 400;
+    public static final int MAX_WIDTH = 2400;
+    public static final int MIN_HEIGHT = 420;
+    public static final int MAX_HEIGHT = 2400;
+
+    /**
+     * Parses query parameters; blank ones take the {@link #DEFAULT} value, except a blank
+     * format, which takes {@code preferredFormat}.
+     *
+     * @throws FieldValidationException naming every invalid parameter
+     */
+    public static ChartRequest of(String region, String metric, String top, String width, String height, String format,
+                                  ChartFormat preferredFormat) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        ChartMetric parsedMetric = isBlank(metric) ? DEFAULT.metric : ChartMetric.parse(metric.trim());
+        if (parsedMetric == null) {
+            errors.put("metric", "must be one of gdp, population, exchange_rate");
+        }
+        int parsedTop = parse(errors, "top", top, DEFAULT.top, 1, MAX_TOP);
+        int parsedWidth = parse(errors, "width", width, DEFAULT.width, MIN_WIDTH, MAX_WIDTH);
+        int parsedHeight = parse(errors, "height", height, DEFAULT.height, MIN_HEIGHT, MAX_HEIGHT);
+        ChartFormat parsedFormat = isBlank(format) ? preferredFormat : ChartFormat.parse(format.trim());
+        if (parsedFormat == null) {
+            errors.put("format", "must be png or svg");
+        }
+        if (errors.isEmpty() && ChartLayout.barSpacing(parsedTop, parsedHeight) < ChartLayout.MIN_BAR_SPACING) {
+            errors.put("height", "must be at least " + ChartLayout.minHeight(parsedTop) + " for " + parsedTop + " bars");
+        }
+        if (!errors.isEmpty()) {
+            throw new FieldValidationException("Invalid chart request", errors);
+        }
+        String normalizedRegion = isBlank(region) ? null : region.trim().toLowerCase(Locale.ROOT);
+        return new ChartRequest(normalizedRegion, parsedMetric, parsedTop, parsedWidth, parsedHeight, parsedFormat);
+    }
+
+    public boolean isDefault() {
+        return equals(DEFAULT);
+    }
+
+    private static int parse(Map<String, String> errors, String field, String value, int fallback, int min, int max) {
+        if (isBlank(value)) {
+            return fallback;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException _) {
+            // reported below
+        }
+        errors.put(field, "must be a whole number from " + min + " to " + max);
+        return fallback;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
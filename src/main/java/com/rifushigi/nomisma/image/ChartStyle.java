@@ -0,0 +1,74 @@
+package com.rifushigi.nomisma.image;
+
+import java.awt.*;
+import java.util.Map;
+
+/**
+ * Colors, fixed-size fonts and rendering hints of the summary chart, created once
+ * rather than per render.
+ */
+final class ChartStyle {
+
+    static final Map<RenderingHints.Key, Object> HINTS = Map.of(
+            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON,
+            RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON,
+            RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+    static final Color BACKGROUND_TOP = new Color(250, 251, 252);
+    static final Color BACKGROUND_BOTTOM = new Color(244, 246, 248);
+    static final Color ACCENT = new Color(59, 130, 246);
+    static final Color HEADING = new Color(15, 23, 42);
+    static final Color MUTED = new Color(100, 116, 139);
+    static final Color CARD_SHADOW = new Color(0, 0, 0, 8);
+    static final Color DIVIDER = new Color(226, 232, 240);
+    static final Color TRACK = new Color(241, 245, 249);
+    static final Color NAME = new Color(30, 41, 59);
+    static final Color VALUE = new Color(71, 85, 105);
+    static final Color HIGHLIGHT = new Color(255, 255, 255, 40);
+    static final Color FOOTER = new Color(148, 163, 184);
+
+    static final Font TITLE_FONT = new Font("SansSerif", Font.BOLD, 36);
+    static final Font META_FONT = new Font("SansSerif", Font.PLAIN, 16);
+    static final Font SUBTITLE_FONT = new Font("SansSerif", Font.BOLD, 24);
+    static final Font FOOTER_FONT = new Font("SansSerif", Font.PLAIN, 13);
+
+    static final String FOOTER_TEXT = "Generated automatically by Nomisma API";
+
+    // Professional monochromatic color scheme (shades of blue); bars past the fifth use the last
+    private static final Color[] BAR_COLORS = {
+            new Color(37, 99, 235),    // primary blue
+            new Color(59, 130, 246),   // lighter blue
+            new Color(96, 165, 250),   // even lighter
+            new Color(147, 197, 253),  // lighter still
+            new Color(191, 219, 254)   // lightest blue
+    };
+    private static final Color[] BAR_SHADES = new Color[BAR_COLORS.length];
+
+    static {
+        for (int i = 0; i < BAR_COLORS.length; i++) {
+            BAR_SHADES[i] = darker(BAR_COLORS[i]);
+        }
+    }
+
+    private ChartStyle() {
+    }
+
+    static Color barColor(int index) {
+        return BAR_COLORS[Math.min(index, BAR_COLORS.length - 1)];
+    }
+
+    /**
+     * The bottom of a bar's gradient, for depth.
+     */
+    static Color barShade(int index) {
+        return BAR_SHADES[Math.min(index, BAR_SHADES.length - 1)];
+    }
+
+    private static Color darker(Color color) {
+        return new Color(
+                Math.max(0, Math.min(255, (int) (color.getRed() * 0.85f))),
+                Math.max(0, Math.min(255, (int) (color.getGreen() * 0.85f))),
+                Math.max(0, Math.min(255, (int) (color.getBlue() * 0.85f))),
+                color.getAlpha());
+    }
+}
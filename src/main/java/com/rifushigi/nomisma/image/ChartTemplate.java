@@ -0,0 +1,156 @@
+package com.rifushigi.nomisma.image;
+
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.rifushigi.nomisma.image.ChartStyle.*;
+
+/**
+ * The parts of a summary chart that only depend on its layout and bar count, drawn
+ * once: background, header, card, divider, footer, rank badges and empty bar tracks.
+ * Also holds the layout's fonts, value-label metrics and bar gradients, so a render
+ * only copies the background and draws text and bar fills on top. Immutable apart
+ * from one spare canvas, which a render borrows and hands back to save allocating a
+ * raster the size of the image.
+ */
+final class ChartTemplate {
+
+    private final ChartLayout layout;
+    private final BufferedImage background;
+    private final Font nameFont;
+    private final Font valueFont;
+    private final FontMetrics valueMetrics;
+    private final GradientPaint[] barPaints;
+    private final AtomicReference<BufferedImage> spare = new AtomicReference<>();
+
+    private ChartTemplate(ChartLayout layout, BufferedImage background, Font nameFont, Font valueFont,
+                          FontMetrics valueMetrics, GradientPaint[] barPaints) {
+        this.layout = layout;
+        this.background = background;
+        this.nameFont = nameFont;
+        this.valueFont = valueFont;
+        this.valueMetrics = valueMetrics;
+        this.barPaints = barPaints;
+    }
+
+    static ChartTemplate of(ChartLayout layout, int bars) {
+        int width = layout.width();
+        int height = layout.height();
+        int barHeight = layout.barHeight();
+        int rankSize = layout.rankSize();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHints(HINTS);
+
+        // Background with subtle gradient
+        g.setPaint(new GradientPaint(0, 0, BACKGROUND_TOP, 0, height, BACKGROUND_BOTTOM));
+        g.fillRect(0, 0, width, height);
+
+        // Header section with colored accent
+        g.setColor(ACCENT);
+        g.fillRect(0, 0, width, 8);
+
+        g.setColor(HEADING);
+        g.setFont(TITLE_FONT);
+        g.drawString("Country Summary", 50, 80);
+
+        // Metadata bullets; the text next to them changes with every refresh
+        g.setColor(MUTED);
+        g.fillOval(50, 110, 4, 4);
+        g.fillOval(50, 140, 4, 4);
+
+        // Card container for the ranking, with a subtle shadow
+        g.setColor(Color.WHITE);
+        g.fill(new RoundRectangle2D.Double(30, 190, width - 60, layout.cardHeight(), 20, 20));
+        g.setColor(CARD_SHADOW);
+        g.fill(new RoundRectangle2D.Double(32, 192, width - 64, layout.cardHeight(), 20, 20));
+
+        // Divider line under the subtitle
+        g.setColor(DIVIDER);
+        g.fillRect(50, 250, width - 100, 2);
+
+        Font rankFont = new Font("SansSerif", Font.BOLD, layout.rankFontSize());
+        FontMetrics rankMetrics = g.getFontMetrics(rankFont);
+        GradientPaint[] barPaints = new GradientPaint[bars];
+        RoundRectangle2D.Double shape = new RoundRectangle2D.Double();
+        for (int i = 0; i < bars; i++) {
+            Color color = barColor(i);
+            int y = layout.barY(i);
+
+            // Rank badge
+            g.setColor(TRACK);
+            g.fillOval(50, y - 25, rankSize, rankSize);
+            g.setColor(color);
+            g.setFont(rankFont);
+            String rank = String.valueOf(i + 1);
+            int rankX = 50 + (rankSize - rankMetrics.stringWidth(rank)) / 2;
+            int rankY = y - 25 + ((rankSize - rankMetrics.getHeight()) / 2) + rankMetrics.getAscent();
+            g.drawString(rank, rankX, rankY);
+
+            // Bar track with rounded corners
+            g.setColor(TRACK);
+            shape.setRoundRect(100, y + 5, width - 200, barHeight, barHeight, barHeight);
+            g.fill(shape);
+
+            barPaints[i] = new GradientPaint(100, y + 5, color, 100, y + 5 + barHeight, barShade(i));
+        }
+
+        g.setFont(FOOTER_FONT);
+        g.setColor(FOOTER);
+        int footerX = (width - g.getFontMetrics().stringWidth(FOOTER_TEXT)) / 2;
+        g.drawString(FOOTER_TEXT, footerX, height - 35);
+
+        Font valueFont = new Font("SansSerif", Font.BOLD, layout.valueFontSize());
+        FontMetrics valueMetrics = g.getFontMetrics(valueFont);
+        g.dispose();
+        return new ChartTemplate(
+                layout,
+                image,
+                new Font("SansSerif", Font.BOLD, layout.nameFontSize()),
+                valueFont,
+                valueMetrics,
+                barPaints);
+    }
+
+    ChartLayout layout() {
+        return layout;
+    }
+
+    Font nameFont() {
+        return nameFont;
+    }
+
+    Font valueFont() {
+        return valueFont;
+    }
+
+    FontMetrics valueMetrics() {
+        return valueMetrics;
+    }
+
+    GradientPaint barPaint(int index) {
+        return barPaints[index];
+    }
+
+    /**
+     * A canvas holding a copy of the background: the spare one when it is free,
+     * otherwise a new one.
+     */
+    BufferedImage borrowCanvas() {
+        BufferedImage canvas = spare.getAndSet(null);
+        if (canvas == null) {
+            canvas = new BufferedImage(background.getWidth(), background.getHeight(), BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = canvas.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(background, 0, 0, null);
+        g.dispose();
+        return canvas;
+    }
+
+    void returnCanvas(BufferedImage canvas) {
+        spare.compareAndSet(null, canvas);
+    }
+}
@@ -0,0 +1,230 @@
+package com.rifushigi.nomisma.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Minimal PNG writer for 8-bit truecolor images, with the deflate level and the
+ * per-row filter chosen by the caller; ImageIO's writer exposes neither the filter nor,
+ * portably, the level. Opaque images are written without an alpha channel. All image
+ * data goes into a single {@code IDAT} chunk. Thread-safe.
+ */
+public final class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int COLOR_TYPE_RGB = 2;
+    private static final int COLOR_TYPE_RGBA = 6;
+
+    private final int compressionLevel;
+    private final Filter filter;
+
+    public PngEncoder(int compressionLevel, Filter filter) {
+        if (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("PNG compression level must be from 0 to 9, was " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        this.filter = filter;
+    }
+
+    public int compressionLevel() {
+        return compressionLevel;
+    }
+
+    public Filter filter() {
+        return filter;
+    }
+
+    /**
+     * Encodes an image of type {@link BufferedImage#TYPE_INT_RGB} or
+     * {@link BufferedImage#TYPE_INT_ARGB}.
+     */
+    public byte[] encode(BufferedImage image) {
+        int type = image.getType();
+        if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB) {
+            throw new IllegalArgumentException("Unsupported image type " + type);
+        }
+        boolean alpha = type == BufferedImage.TYPE_INT_ARGB;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int bytesPerPixel = alpha ? 4 : 3;
+        int stride = width * bytesPerPixel;
+
+        int[] pixels = new int[width];
+        byte[] previous = new byte[stride];
+        byte[] current = new byte[stride];
+        // One filtered row per filter type, each prefixed with its type byte
+        byte[][] filtered = new byte[Filter.ROW_FILTERS][stride + 1];
+        byte[] compressed = new byte[16 * 1024];
+        ByteArrayOutputStream png = new ByteArrayOutputStream(64 * 1024);
+
+        png.writeBytes(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;
+        header[9] = (byte) (alpha ? COLOR_TYPE_RGBA : COLOR_TYPE_RGB);
+        writeChunk(png, "IHDR", header, header.length);
+
+        Deflater deflater = new Deflater(compressionLevel);
+        // zlib's advice for filtered image data; unfiltered rows compress better with the default
+        deflater.setStrategy(filter == Filter.NONE ? Deflater.DEFAULT_STRATEGY : Deflater.FILTERED);
+        ByteArrayOutputStream data = new ByteArrayOutputStream(64 * 1024);
+        try {
+            for (int y = 0; y < height; y++) {
+                image.getRaster().getDataElements(0, y, width, 1, pixels);
+                unpack(pixels, current, alpha);
+                byte[] row = filterRow(current, previous, bytesPerPixel, filtered);
+                deflater.setInput(row);
+                drain(deflater, compressed, data);
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                data.write(compressed, 0, deflater.deflate(compressed));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        writeChunk(png, "IDAT", data.toByteArray(), data.size());
+        writeChunk(png, "IEND", new byte[0], 0);
+        return png.toByteArray();
+    }
+
+    private byte[] filterRow(byte[] row, byte[] previous, int bytesPerPixel, byte[][] filtered) {
+        if (filter != Filter.ADAPTIVE) {
+            byte[] out = filtered[filter.type];
+            apply(filter.type, row, previous, bytesPerPixel, out);
+            return out;
+        }
+        // Minimum sum of absolute differences, the heuristic libpng uses
+        int best = 0;
+        long bestSum = Long.MAX_VALUE;
+        for (int type = 0; type < Filter.ROW_FILTERS; type++) {
+            byte[] out = filtered[type];
+            apply(type, row, previous, bytesPerPixel, out);
+            long sum = 0;
+            for (int i = 1; i < out.length && sum < bestSum; i++) {
+                sum += Math.abs(out[i]);
+            }
+            if (sum < bestSum) {
+                bestSum = sum;
+                best = type;
+            }
+        }
+        return filtered[best];
+    }
+
+    private static void apply(int type, byte[] row, byte[] previous, int bpp, byte[] out) {
+        out[0] = (byte) type;
+        int length = row.length;
+        switch (type) {
+            case 0 -> System.arraycopy(row, 0, out, 1, length);
+            case 1 -> {
+                System.arraycopy(row, 0, out, 1, bpp);
+                for (int i = bpp; i < length; i++) {
+                    out[i + 1] = (byte) (row[i] - row[i - bpp]);
+                }
+            }
+            case 2 -> {
+                for (int i = 0; i < length; i++) {
+                    out[i + 1] = (byte) (row[i] - previous[i]);
+                }
+            }
+            case 3 -> {
+                for (int i = 0; i < length; i++) {
+                    int left = i >= bpp ? row[i - bpp] & 0xff : 0;
+                    out[i + 1] = (byte) (row[i] - ((left + (previous[i] & 0xff)) >>> 1));
+                }
+            }
+            default -> {
+                for (int i = 0; i < length; i++) {
+                    int left = i >= bpp ? row[i - bpp] & 0xff : 0;
+                    int upLeft = i >= bpp ? previous[i - bpp] & 0xff : 0;
+                    out[i + 1] = (byte) (row[i] - paeth(left, previous[i] & 0xff, upLeft));
+                }
+            }
+        }
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int toLeft = Math.abs(estimate - left);
+        int toUp = Math.abs(estimate - up);
+        int toUpLeft = Math.abs(estimate - upLeft);
+        if (toLeft <= toUp && toLeft <= toUpLeft) {
+            return left;
+        }
+        return toUp <= toUpLeft ? up : upLeft;
+    }
+
+    private static void unpack(int[] pixels, byte[] row, boolean alpha) {
+        int i = 0;
+        for (int argb : pixels) {
+            row[i++] = (byte) (argb >>> 16);
+            row[i++] = (byte) (argb >>> 8);
+            row[i++] = (byte) argb;
+            if (alpha) {
+                row[i++] = (byte) (argb >>> 24);
+            }
+        }
+    }
+
+    private static void drain(Deflater deflater, byte[] buffer, ByteArrayOutputStream out) {
+        while (!deflater.needsInput()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+    }
+
+    private static void writeChunk(ByteArrayOutputStream png, String type, byte[] data, int length) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] word = new byte[4];
+        putInt(word, 0, length);
+        png.writeBytes(word);
+        png.writeBytes(typeBytes);
+        png.write(data, 0, length);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        putInt(word, 0, (int) crc.getValue());
+        png.writeBytes(word);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * PNG row filters. {@link #ADAPTIVE} tries all five on every row and keeps the one
+     * that is likely to compress best; it costs about five times the filtering work.
+     */
+    public enum Filter {
+        NONE(0), SUB(1), UP(2), AVERAGE(3), PAETH(4), ADAPTIVE(-1);
+
+        static final int ROW_FILTERS = 5;
+
+        private final int type;
+
+        Filter(int type) {
+            this.type = type;
+        }
+
+        public static Filter parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException _) {
+                throw new IllegalArgumentException("Unknown PNG filter '" + value
+                        + "', expected none, sub, up, average, paeth or adaptive");
+            }
+        }
+    }
+}
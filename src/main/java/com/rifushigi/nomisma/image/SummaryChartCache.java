@@ -0,0 +1,96 @@
+package com.rifushigi.nomisma.image;
+
+import com.rifushigi.nomisma.config.ExecutorConfig;
+import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of rendered charts keyed by {@link ChartRequest} and dataset version.
+ * Entries are futures, so concurrent requests for a chart that is still rendering wait
+ * for that render instead of starting their own. Renders run on the bounded render pool;
+ * when its queue is full the request fails fast with 503 rather than queueing without
+ * limit. A failed render is not cached, and requesting a newer dataset version evicts
+ * every chart of the older ones.
+ */
+@Slf4j
+@Component
+public class SummaryChartCache {
+
+    private final AsyncTaskExecutor renderExecutor;
+    private final int maxEntries;
+    private final Map<Key, CompletableFuture<SummaryImage>> entries;
+    private long newestVersion = Long.MIN_VALUE;
+
+    public SummaryChartCache(
+            @Qualifier(ExecutorConfig.RENDER_EXECUTOR) AsyncTaskExecutor renderExecutor,
+            @Value("${nomisma.image.cache.max-entries:64}") int maxEntries) {
+        this.renderExecutor = renderExecutor;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<SummaryImage>> eldest) {
+                return size() > SummaryChartCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The chart for {@code request} over dataset {@code version}, rendered by {@code render}
+     * on the render pool unless it is cached or already rendering.
+     */
+    public CompletableFuture<SummaryImage> get(ChartRequest request, long version, Supplier<SummaryImage> render) {
+        Key key = new Key(request, version);
+        CompletableFuture<SummaryImage> rendering;
+        synchronized (entries) {
+            CompletableFuture<SummaryImage> cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            if (version > newestVersion) {
+                newestVersion = version;
+                entries.keySet().removeIf(entry -> entry.version() < version);
+            }
+            rendering = new CompletableFuture<>();
+            entries.put(key, rendering);
+        }
+
+        try {
+            CompletableFuture.supplyAsync(render, renderExecutor).whenComplete((image, failure) -> {
+                if (failure != null) {
+                    forget(key, rendering);
+                    rendering.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause()
+                            : failure);
+                } else {
+                    rendering.complete(image);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            forget(key, rendering);
+            log.warn("Image::render pool is saturated, rejecting {}", request);
+            rendering.completeExceptionally(new ServiceUnavailableException(
+                    "Summary image unavailable",
+                    "Too many charts are being rendered, try again shortly"));
+        }
+        return rendering;
+    }
+
+    private void forget(Key key, CompletableFuture<SummaryImage> rendering) {
+        synchronized (entries) {
+            entries.remove(key, rendering);
+        }
+    }
+
+    private record Key(ChartRequest request, long version) { }
+}
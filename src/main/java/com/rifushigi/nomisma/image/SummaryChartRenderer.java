@@ -0,0 +1,127 @@
+package com.rifushigi.nomisma.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.rifushigi.nomisma.image.ChartStyle.*;
+
+/**
+ * Draws the summary chart: a header with the refresh metadata and a card of ranked,
+ * labelled bars. For PNG, everything that does not depend on the data is drawn once per
+ * layout into a {@link ChartTemplate}; a render copies it and draws only the text and bar
+ * fills, then encodes with the configured {@link PngEncoder}. SVG is written as text by
+ * {@link SvgChartWriter}. CPU-bound; callers run it on the render executor.
+ */
+@Component
+public class SummaryChartRenderer {
+
+    // A template holds a raster the size of the chart, and up to one spare, so keep few
+    static final int MAX_TEMPLATES = 8;
+
+    private final PngEncoder pngEncoder;
+    private final Map<TemplateKey, ChartTemplate> templates = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TemplateKey, ChartTemplate> eldest) {
+            return size() > MAX_TEMPLATES;
+        }
+    };
+
+    public SummaryChartRenderer(
+            @Value("${nomisma.image.png.compression-level:6}") int compressionLevel,
+            @Value("${nomisma.image.png.filter:none}") String filter) {
+        this.pngEncoder = new PngEncoder(compressionLevel, PngEncoder.Filter.parse(filter));
+    }
+
+    public byte[] render(ChartRequest request, ChartData data) {
+        return switch (request.format()) {
+            case PNG -> {
+                ChartTemplate template = template(ChartLayout.of(request), data.bars().size());
+                BufferedImage canvas = template.borrowCanvas();
+                try {
+                    draw(canvas, template, data);
+                    yield pngEncoder.encode(canvas);
+                } finally {
+                    template.returnCanvas(canvas);
+                }
+            }
+            case SVG -> SvgChartWriter.write(ChartLayout.of(request), data);
+        };
+    }
+
+    private ChartTemplate template(ChartLayout layout, int bars) {
+        TemplateKey key = new TemplateKey(layout, bars);
+        synchronized (templates) {
+            ChartTemplate template = templates.get(key);
+            if (template != null) {
+                return template;
+            }
+        }
+        // Drawn outside the lock; two renders racing for a new layout both draw it, once
+        ChartTemplate template = ChartTemplate.of(layout, bars);
+        synchronized (templates) {
+            ChartTemplate raced = templates.putIfAbsent(key, template);
+            return raced != null ? raced : template;
+        }
+    }
+
+    private static void draw(BufferedImage canvas, ChartTemplate template, ChartData data) {
+        ChartLayout layout = template.layout();
+        Graphics2D g = canvas.createGraphics();
+        g.setRenderingHints(HINTS);
+
+        g.setFont(META_FONT);
+        g.setColor(MUTED);
+        g.drawString("Last Refreshed: " + data.lastRefreshed(), 65, 120);
+        g.drawString("Total Countries: " + data.totalCountries(), 65, 150);
+
+        g.setColor(HEADING);
+        g.setFont(SUBTITLE_FONT);
+        g.drawString(data.subtitle(), 50, 235);
+
+        List<ChartData.Bar> bars = data.bars();
+        int width = layout.width();
+        int barHeight = layout.barHeight();
+        double max = 0;
+        for (ChartData.Bar bar : bars) {
+            max = Math.max(max, bar.value());
+        }
+        RoundRectangle2D.Double shape = new RoundRectangle2D.Double();
+
+        for (int i = 0; i < bars.size(); i++) {
+            ChartData.Bar bar = bars.get(i);
+            int y = layout.barY(i);
+
+            g.setFont(template.nameFont());
+            g.setColor(NAME);
+            g.drawString(bar.name(), 100, y - 5);
+
+            // Value label, right-aligned
+            g.setFont(template.valueFont());
+            g.setColor(VALUE);
+            g.drawString(bar.label(), width - 80 - template.valueMetrics().stringWidth(bar.label()), y - 5);
+
+            double ratio = max > 0 ? bar.value() / max : 0;
+            int barWidth = (int) ((width - 200) * ratio);
+            if (barWidth > 0) {
+                g.setPaint(template.barPaint(i));
+                shape.setRoundRect(100, y + 5, barWidth, barHeight, barHeight, barHeight);
+                g.fill(shape);
+
+                // Subtle highlight
+                g.setColor(HIGHLIGHT);
+                shape.setRoundRect(100, y + 5, barWidth, (double) barHeight / 2, barHeight, barHeight);
+                g.fill(shape);
+            }
+        }
+        g.dispose();
+    }
+
+    private record TemplateKey(ChartLayout layout, int bars) { }
+}
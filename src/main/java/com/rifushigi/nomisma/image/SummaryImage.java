@@ -0,0 +1,28 @@
+package com.rifushigi.nomisma.image;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * A rendered summary chart, PNG or SVG, with its strong ETag, derived from the bytes
+ * alone, so a render that produces the same picture keeps answering
+ * {@code If-None-Match} with 304.
+ * The array is shared by every response and must not be modified.
+ */
+public record SummaryImage(byte[] bytes, String etag, Instant renderedAt) {
+
+    public static SummaryImage of(byte[] bytes, Instant renderedAt) {
+        return new SummaryImage(bytes, "\"" + contentHash(bytes) + "\"", renderedAt);
+    }
+
+    private static String contentHash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.rifushigi.nomisma.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Holds the current summary image in memory, so serving it costs no file access. A new
+ * image is written to a temporary file and moved over the previous one, so the file on
+ * disk is always a complete PNG; it only exists to survive restarts and is read once,
+ * on first use.
+ */
+@Slf4j
+@Component
+public class SummaryImageStore {
+
+    private final Path file;
+
+    private volatile SummaryImage current;
+    private boolean loaded;
+
+    public SummaryImageStore(@Value("${nomisma.image.file:cache/summary.png}") String file) {
+        this.file = Path.of(file);
+    }
+
+    public Optional<SummaryImage> get() {
+        SummaryImage image = current;
+        return image != null ? Optional.of(image) : loadIfAbsent();
+    }
+
+    /**
+     * Makes {@code png} the current image. A failure to persist it is logged; the image is
+     * still served from memory.
+     */
+    public SummaryImage publish(byte[] png) {
+        SummaryImage image = SummaryImage.of(png, Instant.now());
+        try {
+            write(png);
+        } catch (IOException e) {
+            log.warn("Image::could not write {}: {}", file, e.getMessage());
+        }
+        synchronized (this) {
+            current = image;
+            loaded = true;
+        }
+        log.info("Image::published {} bytes, etag {}", png.length, image.etag());
+        return image;
+    }
+
+    private synchronized Optional<SummaryImage> loadIfAbsent() {
+        if (current == null && !loaded) {
+            loaded = true;
+            if (Files.isRegularFile(file)) {
+                try {
+                    current = SummaryImage.of(Files.readAllBytes(file), Files.getLastModifiedTime(file).toInstant());
+                } catch (IOException e) {
+                    log.warn("Image::ignoring {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return Optional.ofNullable(current);
+    }
+
+    private void write(byte[] png) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "summary", ".tmp");
+        try {
+            Files.write(temp, png);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.rifushigi.nomisma.image;
+
+import java.awt.Color;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.rifushigi.nomisma.image.ChartStyle.*;
+
+/**
+ * Writes the summary chart as SVG: the same layout, palette and labels as the PNG,
+ * appended element by element to one text buffer, with no Java2D drawing or encoding.
+ * Text is laid out by the client, so labels are right-aligned and ranks centred with
+ * SVG text anchors rather than measured font metrics.
+ */
+final class SvgChartWriter {
+
+    private static final String FONT_FAMILY = "Helvetica, Arial, sans-serif";
+    private static final int BAR_GRADIENTS = 5;
+
+    private static final String ACCENT_FILL = hex(ACCENT);
+    private static final String HEADING_FILL = hex(HEADING);
+    private static final String MUTED_FILL = hex(MUTED);
+    private static final String SHADOW_FILL = hex(CARD_SHADOW);
+    private static final String DIVIDER_FILL = hex(DIVIDER);
+    private static final String TRACK_FILL = hex(TRACK);
+    private static final String NAME_FILL = hex(NAME);
+    private static final String VALUE_FILL = hex(VALUE);
+    private static final String HIGHLIGHT_FILL = hex(HIGHLIGHT);
+    private static final String FOOTER_FILL = hex(FOOTER);
+    private static final double SHADOW_OPACITY = opacity(CARD_SHADOW);
+    private static final double HIGHLIGHT_OPACITY = opacity(HIGHLIGHT);
+
+    // Gradient definitions and rank colors do not depend on the data
+    private static final String[] BAR_GRADIENT_DEFS = new String[BAR_GRADIENTS];
+    private static final String[] RANK_FILLS = new String[BAR_GRADIENTS];
+    private static final String BACKGROUND_DEF = gradient("bg", BACKGROUND_TOP, BACKGROUND_BOTTOM);
+
+    static {
+        for (int i = 0; i < BAR_GRADIENTS; i++) {
+            BAR_GRADIENT_DEFS[i] = gradient("bar" + i, barColor(i), barShade(i));
+            RANK_FILLS[i] = hex(barColor(i));
+        }
+    }
+
+    private SvgChartWriter() {
+    }
+
+    static byte[] write(ChartLayout layout, ChartData data) {
+        int width = layout.width();
+        int height = layout.height();
+        List<ChartData.Bar> bars = data.bars();
+        StringBuilder svg = new StringBuilder(3072 + bars.size() * 640);
+
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+                .append("\" font-family=\"").append(FONT_FAMILY).append("\">");
+
+        svg.append("<defs>").append(BACKGROUND_DEF);
+        for (int i = 0; i < Math.min(bars.size(), BAR_GRADIENTS); i++) {
+            svg.append(BAR_GRADIENT_DEFS[i]);
+        }
+        svg.append("</defs>");
+
+        rect(svg, 0, 0, width, height, 0, "url(#bg)", 1);
+        rect(svg, 0, 0, width, 8, 0, ACCENT_FILL, 1);
+        text(svg, 50, 80, TITLE_FONT.getSize(), true, HEADING_FILL, null, "Country Summary");
+
+        circle(svg, 52, 112, 2, MUTED_FILL);
+        text(svg, 65, 120, META_FONT.getSize(), false, MUTED_FILL, null, "Last Refreshed: " + data.lastRefreshed());
+        circle(svg, 52, 142, 2, MUTED_FILL);
+        text(svg, 65, 150, META_FONT.getSize(), false, MUTED_FILL, null, "Total Countries: " + data.totalCountries());
+
+        // Card container for the ranking, with a subtle shadow
+        rect(svg, 30, 190, width - 60, layout.cardHeight(), 10, "#ffffff", 1);
+        rect(svg, 32, 192, width - 64, layout.cardHeight(), 10, SHADOW_FILL, SHADOW_OPACITY);
+
+        text(svg, 50, 235, SUBTITLE_FONT.getSize(), true, HEADING_FILL, null, data.subtitle());
+        rect(svg, 50, 250, width - 100, 2, 0, DIVIDER_FILL, 1);
+
+        int barHeight = layout.barHeight();
+        double radius = barHeight / 2.0;
+        double rankRadius = layout.rankSize() / 2.0;
+        double max = 0;
+        for (ChartData.Bar bar : bars) {
+            max = Math.max(max, bar.value());
+        }
+        for (int i = 0; i < bars.size(); i++) {
+            ChartData.Bar bar = bars.get(i);
+            int y = layout.barY(i);
+            int style = Math.min(i, BAR_GRADIENTS - 1);
+
+            // Rank badge; a baseline about a third of the font size below the centre centres digits
+            circle(svg, 50 + rankRadius, y - 25 + rankRadius, rankRadius, TRACK_FILL);
+            text(svg, 50 + rankRadius, Math.round(y - 25 + rankRadius + layout.rankFontSize() * 0.35),
+                    layout.rankFontSize(), true, RANK_FILLS[style], "middle", String.valueOf(i + 1));
+
+            text(svg, 100, y - 5, layout.nameFontSize(), true, NAME_FILL, null, bar.name());
+            text(svg, width - 80, y - 5, layout.valueFontSize(), true, VALUE_FILL, "end", bar.label());
+
+            rect(svg, 100, y + 5, width - 200, barHeight, radius, TRACK_FILL, 1);
+            double ratio = max > 0 ? bar.value() / max : 0;
+            int barWidth = (int) ((width - 200) * ratio);
+            if (barWidth > 0) {
+                rect(svg, 100, y + 5, barWidth, barHeight, radius, "url(#bar" + style + ")", 1);
+                rect(svg, 100, y + 5, barWidth, radius, radius, HIGHLIGHT_FILL, HIGHLIGHT_OPACITY);
+            }
+        }
+
+        text(svg, width / 2.0, height - 35, FOOTER_FONT.getSize(), false, FOOTER_FILL, "middle", FOOTER_TEXT);
+        svg.append("</svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void rect(StringBuilder svg, double x, double y, double width, double height, double radius,
+                             String fill, double opacity) {
+        svg.append("<rect x=\"");
+        number(svg, x).append("\" y=\"");
+        number(svg, y).append("\" width=\"");
+        number(svg, width).append("\" height=\"");
+        number(svg, height).append('"');
+        if (radius > 0) {
+            // A radius over half the height is clamped, as RoundRectangle2D does with its arcs
+            svg.append(" rx=\"");
+            number(svg, radius).append('"');
+        }
+        svg.append(" fill=\"").append(fill).append('"');
+        if (opacity < 1) {
+            svg.append(" fill-opacity=\"");
+            number(svg, opacity).append('"');
+        }
+        svg.append("/>");
+    }
+
+    private static void circle(StringBuilder svg, double cx, double cy, double radius, String fill) {
+        svg.append("<circle cx=\"");
+        number(svg, cx).append("\" cy=\"");
+        number(svg, cy).append("\" r=\"");
+        number(svg, radius).append("\" fill=\"").append(fill).append("\"/>");
+    }
+
+    private static void text(StringBuilder svg, double x, double y, int size, boolean bold, String fill,
+                             String anchor, String content) {
+        svg.append("<text x=\"");
+        number(svg, x).append("\" y=\"");
+        number(svg, y).append("\" font-size=\"").append(size).append('"');
+        if (bold) {
+            svg.append(" font-weight=\"bold\"");
+        }
+        if (anchor != null) {
+            svg.append(" text-anchor=\"").append(anchor).append('"');
+        }
+        svg.append(" fill=\"").append(fill).append("\">");
+        escape(svg, content);
+        svg.append("</text>");
+    }
+
+    private static StringBuilder number(StringBuilder svg, double value) {
+        long whole = (long) value;
+        return whole == value ? svg.append(whole) : svg.append(value);
+    }
+
+    private static void escape(StringBuilder svg, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> svg.append("&amp;");
+                case '<' -> svg.append("&lt;");
+                case '>' -> svg.append("&gt;");
+                case '"' -> svg.append("&quot;");
+                default -> svg.append(c);
+            }
+        }
+    }
+
+    private static String gradient(String id, Color from, Color to) {
+        return "<linearGradient id=\"" + id + "\" x1=\"0\" y1=\"0\" x2=\"0\" y2=\"1\">"
+                + "<stop offset=\"0\" stop-color=\"" + hex(from) + "\"/>"
+                + "<stop offset=\"1\" stop-color=\"" + hex(to) + "\"/>"
+                + "</linearGradient>";
+    }
+
+    private static String hex(Color color) {
+        return String.format("#%06x", color.getRGB() & 0xffffff);
+    }
+
+    private static double opacity(Color color) {
+        return Math.round(color.getAlpha() / 255.0 * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.rifushigi.nomisma.rates;
+
+import com.rifushigi.nomisma.dto.ExchangeRateCandleDTO;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds a time-ordered stream of rate points into open/high/low/close buckets in one
+ * pass, holding only the bucket being built. Points must arrive in ascending time order,
+ * which the history table's primary key gives a range scan for free.
+ */
+public final class CandleAggregator {
+
+    private final RateInterval interval;
+    private final List<ExchangeRateCandleDTO> candles = new ArrayList<>();
+
+    private Instant bucket;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private int samples;
+
+    public CandleAggregator(RateInterval interval) {
+        this.interval = interval;
+    }
+
+    public void add(Instant time, BigDecimal rate) {
+        Instant start = interval.bucketStart(time);
+        if (!start.equals(bucket)) {
+            emit();
+            bucket = start;
+            open = rate;
+            high = rate;
+            low = rate;
+            samples = 0;
+        } else {
+            high = high.max(rate);
+            low = low.min(rate);
+        }
+        close = rate;
+        samples++;
+    }
+
+    public List<ExchangeRateCandleDTO> finish() {
+        emit();
+        bucket = null;
+        return candles;
+    }
+
+    private void emit() {
+        if (bucket != null) {
+            candles.add(new ExchangeRateCandleDTO(bucket.toString(), open, high, low, close, samples));
+        }
+    }
+}
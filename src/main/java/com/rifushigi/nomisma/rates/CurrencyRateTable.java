@@ -0,0 +1,123 @@
+package com.rifushigi.nomisma.rates;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable cross-rate matrix built from one USD-based rates publication. Currency codes
+ * map to ids without hashing or map lookups: the three letters of a code index a
+ * 26&sup3; slot table that holds the currency's row in the matrix, so a conversion is
+ * two array reads and one multiplication on primitive doubles.
+ */
+public final class CurrencyRateTable {
+
+    public static final CurrencyRateTable EMPTY = new CurrencyRateTable(0, null, new String[0], new double[0]);
+
+    private static final int SLOTS = 26 * 26 * 26;
+
+    private final long version;
+    private final Instant publishedAt;
+    private final String[] codes;
+    private final short[] slotToIndex;
+    private final double[] crossRates;
+
+    private CurrencyRateTable(long version, Instant publishedAt, String[] codes, double[] usdRates) {
+        this.version = version;
+        this.publishedAt = publishedAt;
+        this.codes = codes;
+        this.slotToIndex = new short[SLOTS];
+        Arrays.fill(slotToIndex, (short) -1);
+        int n = codes.length;
+        this.crossRates = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            slotToIndex[slot(codes[i])] = (short) i;
+            for (int j = 0; j < n; j++) {
+                crossRates[i * n + j] = usdRates[j] / usdRates[i];
+            }
+        }
+    }
+
+    /**
+     * Builds the table from rates quoted as units of each currency per US dollar. Codes
+     * that are not three letters, and missing, zero or non-finite rates are left out.
+     */
+    public static CurrencyRateTable of(long version, Instant publishedAt, Map<String, Double> usdRates) {
+        String[] codes = new String[usdRates.size()];
+        double[] rates = new double[usdRates.size()];
+        boolean[] seen = new boolean[SLOTS];
+        int n = 0;
+        for (Map.Entry<String, Double> entry : usdRates.entrySet()) {
+            Double rate = entry.getValue();
+            int slot = slot(entry.getKey());
+            if (slot < 0 || seen[slot] || rate == null || !(rate > 0) || rate.isInfinite()) {
+                continue;
+            }
+            seen[slot] = true;
+            codes[n] = codeOf(slot);
+            rates[n] = rate;
+            n++;
+        }
+        return new CurrencyRateTable(version, publishedAt, Arrays.copyOf(codes, n), Arrays.copyOf(rates, n));
+    }
+
+    /**
+     * Row of {@code code} in the matrix, or -1 when the code is malformed or unknown.
+     */
+    public int indexOf(String code) {
+        int slot = slot(code);
+        return slot < 0 ? -1 : slotToIndex[slot];
+    }
+
+    /**
+     * Units of {@code to} per unit of {@code from}; both are {@link #indexOf} results and must be valid.
+     */
+    public double rate(int from, int to) {
+        return crossRates[from * codes.length + to];
+    }
+
+    public double convert(int from, int to, double amount) {
+        return amount * crossRates[from * codes.length + to];
+    }
+
+    public String codeAt(int index) {
+        return codes[index];
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Instant publishedAt() {
+        return publishedAt;
+    }
+
+    /**
+     * Perfect hash of a three-letter code, case-insensitive; -1 for anything else.
+     */
+    static int slot(String code) {
+        if (code == null || code.length() != 3) {
+            return -1;
+        }
+        int slot = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = (code.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter >= 26) {
+                return -1;
+            }
+            slot = slot * 26 + letter;
+        }
+        return slot;
+    }
+
+    private static String codeOf(int slot) {
+        return new String(new char[] {
+                (char) ('A' + slot / 676),
+                (char) ('A' + slot / 26 % 26),
+                (char) ('A' + slot % 26)});
+    }
+}
@@ -0,0 +1,36 @@
+package com.rifushigi.nomisma.rates;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Holds the current {@link CurrencyRateTable}. Reads are a single volatile load; a new
+ * table is built and published only when a refresh brings a different rates publication.
+ */
+@Slf4j
+@Component
+public class CurrencyRateTableHolder {
+
+    private volatile CurrencyRateTable current = CurrencyRateTable.EMPTY;
+
+    public CurrencyRateTable get() {
+        return current;
+    }
+
+    /**
+     * Returns whether a new table was published.
+     */
+    public synchronized boolean publishIfNewer(Instant publishedAt, Map<String, Double> usdRates) {
+        CurrencyRateTable table = current;
+        if (table.publishedAt() != null && !publishedAt.isAfter(table.publishedAt())) {
+            return false;
+        }
+        current = CurrencyRateTable.of(table.version() + 1, publishedAt, usdRates);
+        log.info("Rates::published rate table version {} with {} currencies from {}",
+                current.version(), current.size(), publishedAt);
+        return true;
+    }
+}
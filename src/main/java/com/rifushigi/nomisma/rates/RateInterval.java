@@ -0,0 +1,43 @@
+package com.rifushigi.nomisma.rates;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Bucket width for downsampling a rate series. Buckets start on UTC boundaries;
+ * weeks start on Monday. {@link #RAW} keeps every stored point.
+ */
+public enum RateInterval {
+    RAW,
+    HOUR,
+    DAY,
+    WEEK;
+
+    public Instant bucketStart(Instant time) {
+        return switch (this) {
+            case RAW -> time;
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> time.atOffset(ZoneOffset.UTC)
+                    .truncatedTo(ChronoUnit.DAYS)
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .toInstant();
+        };
+    }
+
+    /**
+     * Parses a case-insensitive interval name; unknown names are rejected with an
+     * {@link IllegalArgumentException}.
+     */
+    public static RateInterval parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,37 @@
+package com.rifushigi.nomisma.refresh;
+
+import java.time.Duration;
+
+/**
+ * When the next scheduled refresh runs. After a success the delay is {@code interval};
+ * after {@code n} consecutive failures it is {@code initialBackoff * 2^(n-1)}, capped at
+ * {@code maxBackoff}. Either delay is spread by up to {@code ±jitter} of itself so that
+ * instances started together do not call the upstreams in lockstep.
+ */
+public record RefreshCadence(Duration interval, double jitter, Duration initialBackoff, Duration maxBackoff) {
+
+    private static final int MAX_DOUBLINGS = 30;
+
+    public RefreshCadence {
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("jitter must be in [0, 1), was " + jitter);
+        }
+        if (interval.isNegative() || interval.isZero() || initialBackoff.isNegative() || initialBackoff.isZero()) {
+            throw new IllegalArgumentException("interval and initial backoff must be positive");
+        }
+    }
+
+    /**
+     * @param random a uniform sample from [0, 1) that picks the point inside the jitter range
+     */
+    public Duration nextDelay(int consecutiveFailures, double random) {
+        Duration base = consecutiveFailures == 0 ? interval : backoff(consecutiveFailures);
+        double factor = 1 + jitter * (2 * random - 1);
+        return Duration.ofMillis(Math.round(base.toMillis() * factor));
+    }
+
+    private Duration backoff(int consecutiveFailures) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(consecutiveFailures - 1, MAX_DOUBLINGS));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
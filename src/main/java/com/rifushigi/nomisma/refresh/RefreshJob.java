@@ -0,0 +1,142 @@
+package com.rifushigi.nomisma.refresh;
+
+import com.rifushigi.nomisma.dto.RefreshJobResponseDTO;
+import com.rifushigi.nomisma.repository.CountryBulkRepository.UpsertResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One refresh run as seen from outside. Only the thread running the job writes to it;
+ * request threads read it through the volatile fields, so a status read may see the
+ * phase a moment before the counts that go with it, never torn values.
+ */
+public final class RefreshJob {
+
+    private final UUID id;
+    private final Instant requestedAt;
+    private final AtomicInteger triggers = new AtomicInteger(1);
+    private final CompletableFuture<RefreshJob> completion = new CompletableFuture<>();
+    private volatile RefreshPhase phase = RefreshPhase.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile UpsertResult result = UpsertResult.NONE;
+    private volatile String error;
+    private volatile long connectionHoldNanos;
+    private volatile long longestConnectionHoldNanos;
+
+    RefreshJob(UUID id, Instant requestedAt) {
+        this.id = id;
+        this.requestedAt = requestedAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public RefreshPhase getPhase() {
+        return phase;
+    }
+
+    public UpsertResult getResult() {
+        return result;
+    }
+
+    /**
+     * Completes with this job once it has succeeded or failed.
+     */
+    public CompletionStage<RefreshJob> completion() {
+        return completion;
+    }
+
+    /**
+     * Moves the job to a running phase; the first call marks it started.
+     */
+    public void advance(RefreshPhase next) {
+        if (next == RefreshPhase.QUEUED || next.isTerminal()) {
+            throw new IllegalArgumentException("Not a running phase: " + next);
+        }
+        if (startedAt == null) {
+            startedAt = Instant.now();
+        }
+        phase = next;
+    }
+
+    /**
+     * Adds the counts of one written chunk, so progress is visible while the job runs.
+     */
+    public void record(UpsertResult chunk) {
+        result = result.plus(chunk);
+    }
+
+    /**
+     * Adds one stretch during which the job held a database connection, such as a chunk
+     * transaction or the table swap.
+     */
+    public void recordConnectionHold(Duration held) {
+        long nanos = held.toNanos();
+        connectionHoldNanos += nanos;
+        longestConnectionHoldNanos = Math.max(longestConnectionHoldNanos, nanos);
+    }
+
+    public Duration getConnectionHold() {
+        return Duration.ofNanos(connectionHoldNanos);
+    }
+
+    public Duration getLongestConnectionHold() {
+        return Duration.ofNanos(longestConnectionHoldNanos);
+    }
+
+    /**
+     * Counts a trigger that arrived while this job was in flight and was folded into it.
+     */
+    void coalesce() {
+        triggers.incrementAndGet();
+    }
+
+    void succeed() {
+        finish(RefreshPhase.SUCCEEDED);
+    }
+
+    void fail(Throwable cause) {
+        error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        finish(RefreshPhase.FAILED);
+    }
+
+    private void finish(RefreshPhase terminal) {
+        finishedAt = Instant.now();
+        if (startedAt == null) {
+            startedAt = finishedAt;
+        }
+        phase = terminal;
+        completion.complete(this);
+    }
+
+    public RefreshJobResponseDTO toResponse() {
+        RefreshPhase currentPhase = phase;
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+        UpsertResult counts = result;
+        Long durationMs = started == null
+                ? null
+                : Duration.between(started, finished != null ? finished : Instant.now()).toMillis();
+        return new RefreshJobResponseDTO(
+                id.toString(),
+                currentPhase.name(),
+                requestedAt.toString(),
+                started != null ? started.toString() : null,
+                finished != null ? finished.toString() : null,
+                durationMs,
+                counts.inserted(),
+                counts.updated(),
+                counts.unchanged(),
+                triggers.get(),
+                getConnectionHold().toMillis(),
+                getLongestConnectionHold().toMillis(),
+                error);
+    }
+}
@@ -0,0 +1,96 @@
+package com.rifushigi.nomisma.refresh;
+
+import com.rifushigi.nomisma.entity.TimeOrderedUuid;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs refreshes as single-flight jobs: while one is queued or running, every further
+ * trigger is folded into it and gets its id back, so a burst of triggers costs one
+ * refresh's worth of upstream calls and writes. A trigger that arrives after the
+ * in-flight job has fetched still joins it; the next trigger after it finishes starts
+ * a new job. The most recent jobs are kept for status lookups.
+ */
+@Slf4j
+public class RefreshJobCoordinator {
+
+    static final int RETAINED_JOBS = 32;
+
+    private final Executor executor;
+    private final AtomicReference<RefreshJob> inFlight = new AtomicReference<>();
+    private final Map<UUID, RefreshJob> recent = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, RefreshJob> eldest) {
+            return size() > RETAINED_JOBS;
+        }
+    };
+
+    public RefreshJobCoordinator(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the in-flight job, or starts {@code work} as a new one when none is running.
+     */
+    public RefreshJob submit(Consumer<RefreshJob> work) {
+        while (true) {
+            RefreshJob running = inFlight.get();
+            if (running != null) {
+                running.coalesce();
+                return running;
+            }
+            RefreshJob job = new RefreshJob(TimeOrderedUuid.generate(), Instant.now());
+            if (!inFlight.compareAndSet(null, job)) {
+                continue;
+            }
+            remember(job);
+            try {
+                executor.execute(() -> run(job, work));
+            } catch (RejectedExecutionException e) {
+                job.fail(e);
+                inFlight.compareAndSet(job, null);
+            }
+            return job;
+        }
+    }
+
+    public Optional<RefreshJob> find(UUID id) {
+        synchronized (recent) {
+            return Optional.ofNullable(recent.get(id));
+        }
+    }
+
+    private void run(RefreshJob job, Consumer<RefreshJob> work) {
+        RuntimeException failure = null;
+        try {
+            work.accept(job);
+        } catch (RuntimeException e) {
+            log.error("Refresh::job {} failed: {}", job.getId(), e.getMessage(), e);
+            failure = e;
+        } finally {
+            // Free the slot before publishing the outcome, so a trigger that sees the job
+            // finished never joins it
+            inFlight.compareAndSet(job, null);
+        }
+        if (failure == null) {
+            job.succeed();
+        } else {
+            job.fail(failure);
+        }
+    }
+
+    private void remember(RefreshJob job) {
+        synchronized (recent) {
+            recent.put(job.getId(), job);
+        }
+    }
+}
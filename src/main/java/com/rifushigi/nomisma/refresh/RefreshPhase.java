@@ -0,0 +1,14 @@
+package com.rifushigi.nomisma.refresh;
+
+public enum RefreshPhase {
+    QUEUED,
+    FETCHING,
+    WRITING,
+    PUBLISHING,
+    SUCCEEDED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
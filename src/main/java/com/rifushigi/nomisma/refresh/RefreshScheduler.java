@@ -0,0 +1,89 @@
+package com.rifushigi.nomisma.refresh;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Triggers refreshes on a {@link RefreshCadence}. Each run is scheduled only after the
+ * previous job has finished, so a slow or failing refresh pushes the next one back
+ * instead of piling up. Scheduled runs go through the same single-flight trigger as
+ * manual ones. With scheduling disabled, {@link #start} runs at most the first refresh.
+ * There is one instance per kind of refresh, built in {@code RefreshConfig}.
+ */
+@Slf4j
+public class RefreshScheduler {
+
+    private final String name;
+    private final TaskScheduler scheduler;
+    private final RefreshCadence cadence;
+    private final boolean enabled;
+
+    private volatile Supplier<RefreshJob> trigger;
+    private volatile Instant nextRunAt;
+    private int consecutiveFailures;
+
+    public RefreshScheduler(String name, TaskScheduler scheduler, boolean enabled, RefreshCadence cadence) {
+        this.name = name;
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        this.cadence = cadence;
+    }
+
+    /**
+     * Starts scheduling refreshes through {@code trigger}, running the first one right away
+     * when {@code runNow} is set and otherwise one interval from now.
+     */
+    public void start(Supplier<RefreshJob> trigger, boolean runNow) {
+        this.trigger = trigger;
+        if (runNow) {
+            run();
+        } else {
+            scheduleNext(true);
+        }
+    }
+
+    public Optional<Instant> nextRunAt() {
+        return Optional.ofNullable(nextRunAt);
+    }
+
+    private void run() {
+        nextRunAt = null;
+        RefreshJob job;
+        try {
+            job = trigger.get();
+        } catch (RuntimeException e) {
+            log.error("Schedule::could not start a {}: {}", name, e.getMessage());
+            scheduleNext(false);
+            return;
+        }
+        job.completion().thenAccept(done -> scheduleNext(done.getPhase() == RefreshPhase.SUCCEEDED));
+    }
+
+    private synchronized void scheduleNext(boolean succeeded) {
+        consecutiveFailures = succeeded ? 0 : consecutiveFailures + 1;
+        if (!enabled) {
+            return;
+        }
+        Duration delay = cadence.nextDelay(consecutiveFailures, ThreadLocalRandom.current().nextDouble());
+        Instant next = Instant.now().plus(delay);
+        try {
+            scheduler.schedule(this::run, next);
+        } catch (TaskRejectedException e) {
+            log.info("Schedule::scheduler is shutting down, no further {}es", name);
+            return;
+        }
+        nextRunAt = next;
+        if (consecutiveFailures == 0) {
+            log.info("Schedule::next {} at {}", name, next);
+        } else {
+            log.warn("Schedule::{} failed {} time(s) in a row, retrying at {}", name, consecutiveFailures, next);
+        }
+    }
+}
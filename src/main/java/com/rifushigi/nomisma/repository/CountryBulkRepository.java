@@ -0,0 +1,281 @@
+package com.rifushigi.nomisma.repository;
+
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.entity.CountryFingerprint;
+import com.rifushigi.nomisma.entity.TimeOrderedUuid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based writes for the refresh path. Rows are sent as multi-row
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} statements keyed on the unique
+ * {@code name_key}, so a full refresh costs a handful of round trips instead of one
+ * per country. Only rows whose {@link CountryFingerprint} or exchange rate differs from
+ * the stored one are sent at all. Callers own the transaction.
+ * <p>
+ * A refresh writes to {@code country_staging}, a copy of the live table taken when the
+ * refresh starts, and then swaps the two tables in one atomic {@code RENAME TABLE}, so
+ * the live table is never locked by refresh writes and readers never see a
+ * half-applied refresh. The swap is only atomic on MySQL.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CountryBulkRepository {
+
+    public static final int ROWS_PER_STATEMENT = 250;
+
+    private static final String LIVE_TABLE = "country";
+    private static final String STAGING_TABLE = "country_staging";
+    private static final String RETIRED_TABLE = "country_retired";
+
+    private static final String COLUMNS = "id, name, name_key, capital, region, population, currency_code, "
+            + "exchange_rate, estimated_gdp, flag_url, last_refreshed_at, content_hash";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE name = VALUES(name), "
+            + "capital = VALUES(capital), region = VALUES(region), population = VALUES(population), "
+            + "currency_code = VALUES(currency_code), exchange_rate = VALUES(exchange_rate), "
+            + "estimated_gdp = VALUES(estimated_gdp), flag_url = VALUES(flag_url), "
+            + "last_refreshed_at = VALUES(last_refreshed_at), content_hash = VALUES(content_hash)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean mysql;
+
+    /**
+     * Upserts the countries whose fingerprint or exchange rate is new or different, keyed by
+     * normalized name; the last entry wins when a name repeats within one call. Unchanged rows
+     * are not written, so they keep their stored GDP estimate and refresh timestamp. Rows
+     * stored without a fingerprint count as updated and are written once.
+     */
+    public UpsertResult upsert(Collection<Country> countries) {
+        return upsert(LIVE_TABLE, countries);
+    }
+
+    /**
+     * {@link #upsert(Collection)} against the staging table.
+     */
+    public UpsertResult upsertStaged(Collection<Country> countries) {
+        return upsert(STAGING_TABLE, countries);
+    }
+
+    /**
+     * Replaces the staging table's contents with a copy of the live table, in one
+     * server-side statement. Returns the number of rows copied.
+     */
+    public int prepareStaging() {
+        jdbcTemplate.execute("TRUNCATE TABLE " + STAGING_TABLE);
+        return jdbcTemplate.update("INSERT INTO " + STAGING_TABLE + " (" + COLUMNS + ") SELECT "
+                + COLUMNS + " FROM " + LIVE_TABLE);
+    }
+
+    /**
+     * Makes the staging table live and the previous live table the next staging table.
+     * {@code RENAME TABLE} renames all three in one atomic step; queries against
+     * {@code country} wait for it rather than seeing either table half-renamed.
+     */
+    public void swapStaging() {
+        if (isMySql()) {
+            jdbcTemplate.execute("RENAME TABLE " + LIVE_TABLE + " TO " + RETIRED_TABLE + ", "
+                    + STAGING_TABLE + " TO " + LIVE_TABLE + ", "
+                    + RETIRED_TABLE + " TO " + STAGING_TABLE);
+            return;
+        }
+        // H2, which the tests run on, renames one table per statement, so the swap is not atomic there
+        jdbcTemplate.execute("ALTER TABLE " + LIVE_TABLE + " RENAME TO " + RETIRED_TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + STAGING_TABLE + " RENAME TO " + LIVE_TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + RETIRED_TABLE + " RENAME TO " + STAGING_TABLE);
+    }
+
+    /**
+     * Removes a country from the staging table too, so a delete that lands while a refresh
+     * is loading is not undone by the swap.
+     */
+    public int deleteStaged(String nameKey) {
+        return jdbcTemplate.update("DELETE FROM " + STAGING_TABLE + " WHERE name_key = ?", nameKey);
+    }
+
+    /**
+     * Applies a new set of USD rates to the live and staging tables without touching any
+     * other column, as one batch of per-currency {@code UPDATE}s: a row's GDP estimate is
+     * rescaled by old rate / new rate, which keeps its random multiplier, and a row that had
+     * no rate gets a fresh estimate. Rows already at the new rate are left alone. The
+     * rate is not part of the {@link CountryFingerprint}, so an updated row keeps its
+     * fingerprint and a full refresh carrying the same rate leaves it, and its estimate,
+     * as they are. Returns the number of live rows updated.
+     */
+    public int updateRates(Map<String, BigDecimal> rates, Instant refreshedAt) {
+        List<Object[]> args = new ArrayList<>(rates.size());
+        Timestamp timestamp = Timestamp.from(refreshedAt);
+        rates.forEach((code, rate) -> args.add(new Object[] {rate, rate, rate, timestamp, code, rate}));
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(updateRatesStatement(LIVE_TABLE), args)) {
+            updated += Math.max(count, 0);
+        }
+        jdbcTemplate.batchUpdate(updateRatesStatement(STAGING_TABLE), args);
+        return updated;
+    }
+
+    /**
+     * The distinct currency codes of the live table.
+     */
+    public List<String> currencyCodes() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT currency_code FROM " + LIVE_TABLE
+                + " WHERE currency_code IS NOT NULL", String.class);
+    }
+
+    private UpsertResult upsert(String table, Collection<Country> countries) {
+        Map<String, Country> byNameKey = new LinkedHashMap<>();
+        for (Country country : countries) {
+            byNameKey.put(Country.normalizeName(country.getName()), country);
+        }
+
+        Map<String, StoredRow> stored = loadStoredRows(table, byNameKey.keySet());
+        List<Map.Entry<String, Country>> changed = new ArrayList<>();
+        int inserted = 0;
+        int updated = 0;
+        for (Map.Entry<String, Country> entry : byNameKey.entrySet()) {
+            Country country = entry.getValue();
+            country.setContentHash(CountryFingerprint.of(country));
+            if (!stored.containsKey(entry.getKey())) {
+                inserted++;
+            } else if (stored.get(entry.getKey()).differsFrom(country)) {
+                updated++;
+            } else {
+                continue;
+            }
+            changed.add(entry);
+        }
+
+        for (int from = 0; from < changed.size(); from += ROWS_PER_STATEMENT) {
+            List<Map.Entry<String, Country>> chunk = changed.subList(from, Math.min(from + ROWS_PER_STATEMENT, changed.size()));
+            jdbcTemplate.update(statementFor(table, chunk.size()), ps -> bind(ps, chunk));
+        }
+
+        return new UpsertResult(inserted, updated, byNameKey.size() - inserted - updated);
+    }
+
+    /**
+     * Stored fingerprints and rates of just the given names, so a call only holds state
+     * for the rows it was handed, however large the table is.
+     */
+    private Map<String, StoredRow> loadStoredRows(String table, Collection<String> nameKeys) {
+        Map<String, StoredRow> rows = new HashMap<>();
+        if (nameKeys.isEmpty()) {
+            return rows;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(nameKeys.size(), "?"));
+        jdbcTemplate.query("SELECT name_key, content_hash, exchange_rate FROM " + table
+                        + " WHERE name_key IN (" + placeholders + ")",
+                rs -> {
+                    rows.put(rs.getString(1), new StoredRow(rs.getBytes(2), rs.getBigDecimal(3)));
+                },
+                nameKeys.toArray());
+        return rows;
+    }
+
+    private boolean isMySql() {
+        Boolean known = mysql;
+        if (known == null) {
+            known = "MySQL".equalsIgnoreCase(jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+            mysql = known;
+        }
+        return known;
+    }
+
+    // estimated_gdp is assigned first: MySQL evaluates single-table assignments left to right.
+    // The new rate and the multiplier are cast to exchange_rate's type: H2 otherwise divides
+    // with an unbounded scale, which takes seconds per statement.
+    private static String updateRatesStatement(String table) {
+        return "UPDATE " + table + " SET "
+                + "estimated_gdp = CASE WHEN exchange_rate IS NULL "
+                + "THEN ROUND(population * CAST(1000 + RAND() * 1001 AS DECIMAL(20, 6)) / CAST(? AS DECIMAL(20, 6)), 0) "
+                + "ELSE ROUND(estimated_gdp * exchange_rate / CAST(? AS DECIMAL(20, 6)), 0) END, "
+                + "exchange_rate = ?, last_refreshed_at = ? "
+                + "WHERE currency_code = ? AND (exchange_rate IS NULL OR exchange_rate <> ?)";
+    }
+
+    private static String statementFor(String table, int rowCount) {
+        StringBuilder sql = new StringBuilder(64 + rowCount * (ROW.length() + 2) + ON_DUPLICATE.length())
+                .append("INSERT INTO ").append(table).append(" (").append(COLUMNS).append(") VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(ON_DUPLICATE).toString();
+    }
+
+    private static void bind(PreparedStatement ps, List<Map.Entry<String, Country>> chunk) throws SQLException {
+        int index = 1;
+        for (Map.Entry<String, Country> entry : chunk) {
+            Country country = entry.getValue();
+            // Only used when the row is new; an existing row keeps its id
+            UUID id = country.getId() != null ? country.getId() : TimeOrderedUuid.generate();
+            ps.setBytes(index++, toBytes(id));
+            ps.setString(index++, country.getName());
+            ps.setString(index++, entry.getKey());
+            ps.setString(index++, country.getCapital());
+            ps.setString(index++, country.getRegion());
+            ps.setLong(index++, country.getPopulation());
+            ps.setString(index++, country.getCurrencyCode());
+            ps.setBigDecimal(index++, country.getExchangeRate());
+            ps.setBigDecimal(index++, country.getEstimatedGdp());
+            ps.setString(index++, country.getFlagUrl());
+            if (country.getLastRefreshedAt() != null) {
+                ps.setTimestamp(index++, Timestamp.from(country.getLastRefreshedAt()));
+            } else {
+                ps.setNull(index++, Types.TIMESTAMP);
+            }
+            ps.setBytes(index++, country.getContentHash());
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private record StoredRow(byte[] contentHash, BigDecimal exchangeRate) {
+        // compareTo, not equals: 1.5 and 1.500000 are the same rate
+        boolean differsFrom(Country country) {
+            BigDecimal rate = country.getExchangeRate();
+            boolean sameRate = exchangeRate == null ? rate == null : rate != null && exchangeRate.compareTo(rate) == 0;
+            return !sameRate || !Arrays.equals(contentHash, country.getContentHash());
+        }
+    }
+
+    public record UpsertResult(int inserted, int updated, int unchanged) {
+        public static final UpsertResult NONE = new UpsertResult(0, 0, 0);
+
+        public UpsertResult plus(UpsertResult other) {
+            return new UpsertResult(inserted + other.inserted, updated + other.updated, unchanged + other.unchanged);
+        }
+
+        public boolean hasChanges() {
+            return inserted > 0 || updated > 0;
+        }
+    }
+}
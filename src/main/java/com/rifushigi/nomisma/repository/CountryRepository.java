@@ -1,26 +1,51 @@
 package com.rifushigi.nomisma.repository;
 
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
 import com.rifushigi.nomisma.entity.Country;
 import com.rifushigi.nomisma.projection.CountryGdpProjection;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CountryRepository extends JpaRepository<Country, UUID> {
 
-    List<Country> findAll(Specification<Country> spec, Sort sort);
+    String VIEW = "new com.rifushigi.nomisma.dto.CountryResponseDTO("
+            + "c.id, c.name, c.capital, c.region, c.population, c.currencyCode, "
+            + "c.exchangeRate, c.estimatedGdp, c.flagUrl, c.lastRefreshedAt)";
 
-    Optional<Country> getCountryByName(String name);
+    Optional<Country> getCountryByNameKey(String nameKey);
 
-    long deleteByName(String name);
+    long deleteByNameKey(String nameKey);
 
     List<CountryGdpProjection> findTop5ByOrderByEstimatedGdpDesc();
+
+    /**
+     * Read-only view by normalized name, built by a constructor expression so no entity is
+     * hydrated, snapshotted or dirty-checked.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("select " + VIEW + " from Country c where c.nameKey = :nameKey")
+    Optional<CountryResponseDTO> findViewByNameKey(@Param("nameKey") String nameKey);
+
+    /**
+     * Forward-only scan of read-only views. Must run inside a transaction; close the stream.
+     * On MySQL the fetch size only streams when the URL sets {@code useCursorFetch=true}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select " + VIEW + " from Country c")
+    Stream<CountryResponseDTO> streamAllViews();
 }
@@ -0,0 +1,88 @@
+package com.rifushigi.nomisma.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only store of published exchange rates, keyed on {@code (currency_code, observed_at)}.
+ * The key is also the clustered index, so one currency's points over a time window are a
+ * single contiguous range scan that comes back already ordered by time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExchangeRateHistoryRepository {
+
+    private static final String ROW = "(?, ?, ?)";
+    // Appending the same publication twice is a no-op
+    private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE currency_code = currency_code";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends one point per currency for {@code observedAt}, in multi-row statements of at
+     * most {@link CountryBulkRepository#ROWS_PER_STATEMENT} rows. Returns the number of
+     * points sent.
+     */
+    public int append(Instant observedAt, Map<String, BigDecimal> rates) {
+        List<Map.Entry<String, BigDecimal>> points = new ArrayList<>(rates.entrySet());
+        Timestamp timestamp = Timestamp.from(observedAt);
+        for (int from = 0; from < points.size(); from += CountryBulkRepository.ROWS_PER_STATEMENT) {
+            List<Map.Entry<String, BigDecimal>> chunk =
+                    points.subList(from, Math.min(from + CountryBulkRepository.ROWS_PER_STATEMENT, points.size()));
+            jdbcTemplate.update(statementFor(chunk.size()), ps -> bind(ps, chunk, timestamp));
+        }
+        return points.size();
+    }
+
+    /**
+     * Hands each point of {@code currency} in {@code [from, to)} to {@code action}, oldest
+     * first, without collecting them.
+     */
+    public void scan(String currency, Instant from, Instant to, PointHandler action) {
+        jdbcTemplate.query(
+                "SELECT observed_at, rate FROM exchange_rate_history "
+                        + "WHERE currency_code = ? AND observed_at >= ? AND observed_at < ? "
+                        + "ORDER BY observed_at",
+                rs -> {
+                    action.accept(rs.getTimestamp(1).toInstant(), rs.getBigDecimal(2));
+                },
+                currency, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    private static String statementFor(int rowCount) {
+        StringBuilder sql = new StringBuilder(96 + rowCount * (ROW.length() + 2))
+                .append("INSERT INTO exchange_rate_history (currency_code, observed_at, rate) VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(ON_DUPLICATE).toString();
+    }
+
+    private static void bind(PreparedStatement ps, List<Map.Entry<String, BigDecimal>> chunk, Timestamp observedAt)
+            throws SQLException {
+        int index = 1;
+        for (Map.Entry<String, BigDecimal> point : chunk) {
+            ps.setString(index++, point.getKey());
+            ps.setTimestamp(index++, observedAt);
+            ps.setBigDecimal(index++, point.getValue());
+        }
+    }
+
+    @FunctionalInterface
+    public interface PointHandler {
+        void accept(Instant observedAt, BigDecimal rate);
+    }
+}
@@ -5,4 +5,6 @@ import java.time.Instant;
 public interface AppMetadataService {
     void updateLastRefreshedAt(Instant timestamp);
     Instant getLastRefreshedAt();
+    void updateAppliedUpstreamFingerprint(String fingerprint);
+    String getAppliedUpstreamFingerprint();
 }
@@ -1,19 +1,31 @@
 package com.rifushigi.nomisma.service;
 
 import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
 import com.rifushigi.nomisma.dto.CountrySummaryResponseDTO;
-import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.dto.RefreshJobResponseDTO;
+import com.rifushigi.nomisma.image.ChartRequest;
+import com.rifushigi.nomisma.image.SummaryImage;
 import com.rifushigi.nomisma.projection.CountryGdpProjection;
+import com.rifushigi.nomisma.snapshot.CachedResponse;
+import com.rifushigi.nomisma.snapshot.CountryListing;
 
-import java.io.File;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface CountryService {
-    List<Country> getAllCountries(CountryFilterDTO filters);
-    Country getCountryByName(String name);
+    List<CountryResponseDTO> getAllCountries(CountryFilterDTO filters);
+    CachedResponse getCountriesResponse(CountryFilterDTO filters);
+    CountryListing getCountryListing(CountryFilterDTO filters);
+    Optional<CountryListing> getLargeCountryListing(CountryFilterDTO filters);
+    CountryResponseDTO getCountryByName(String name);
     void deleteCountryByName(String name);
     CountrySummaryResponseDTO getCountriesWithRefreshTimestamp();
-    void refreshCountries();
+    RefreshJobResponseDTO refreshCountries();
+    RefreshJobResponseDTO refreshRates();
+    RefreshJobResponseDTO getRefreshJob(String id);
     void generateSummaryImage(long totalCountries, List<CountryGdpProjection> top5ByGdp, String timestamp);
-    File getSummaryImage();
+    SummaryImage getSummaryImage();
+    CompletableFuture<SummaryImage> getSummaryChart(ChartRequest request);
 }
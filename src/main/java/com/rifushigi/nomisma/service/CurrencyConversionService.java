@@ -0,0 +1,10 @@
+package com.rifushigi.nomisma.service;
+
+import com.rifushigi.nomisma.dto.ConversionBatchRequestDTO;
+import com.rifushigi.nomisma.dto.ConversionBatchResponseDTO;
+import com.rifushigi.nomisma.dto.ConversionResponseDTO;
+
+public interface CurrencyConversionService {
+    ConversionResponseDTO convert(String from, String to, String amount);
+    ConversionBatchResponseDTO convertBatch(ConversionBatchRequestDTO request);
+}
@@ -0,0 +1,11 @@
+package com.rifushigi.nomisma.service;
+
+import com.rifushigi.nomisma.dto.ExchangeRateSeriesDTO;
+
+import java.time.Instant;
+import java.util.Map;
+
+public interface ExchangeRateService {
+    int recordRates(Instant observedAt, Map<String, Double> rates);
+    ExchangeRateSeriesDTO getHistory(String currency, String from, String to, String interval);
+}
@@ -1,12 +1,17 @@
 package com.rifushigi.nomisma.service;
 
 import com.rifushigi.nomisma.dto.ExternalCountryDTO;
-import com.rifushigi.nomisma.dto.ExternalExchangeRateDTO;
+import com.rifushigi.nomisma.dto.ExternalDataDTO;
+import com.rifushigi.nomisma.dto.ExternalRatesDTO;
+import com.rifushigi.nomisma.dto.UpstreamStatusDTO;
 
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ExternalApiService {
-    List<ExternalCountryDTO> getCountries();
-    ExternalExchangeRateDTO getExchangeRate();
+    int streamCountries(Path body, Consumer<ExternalCountryDTO> action);
+    ExternalDataDTO fetchAll();
+    ExternalRatesDTO fetchExchangeRate();
+    List<UpstreamStatusDTO> getUpstreamStatus();
 }
@@ -12,28 +12,50 @@ import java.time.Instant;
 @RequiredArgsConstructor
 public class AppMetadataServiceImpl implements AppMetadataService {
 
+    private static final String APPLIED_UPSTREAM_FINGERPRINT = "applied_upstream_fingerprint";
+
     private final AppMetadataRepository metadataRepository;
 
 
     @Override
     public void updateLastRefreshedAt(Instant timestamp) {
+        save("last_refreshed_at", timestamp.toString(), timestamp);
+    }
+
+    @Override
+    public Instant getLastRefreshedAt() {
+        return metadataRepository.findByMetaKey("last_refreshed_at")
+                .map(m -> Instant.parse(m.getMetaValue()))
+                .orElse(null);
+    }
+
+    /**
+     * Fingerprint of the upstream payloads the country table was last fully built from;
+     * {@code null} clears it, forcing the next refresh to re-apply the payloads.
+     */
+    @Override
+    public void updateAppliedUpstreamFingerprint(String fingerprint) {
+        save(APPLIED_UPSTREAM_FINGERPRINT, fingerprint, Instant.now());
+    }
+
+    @Override
+    public String getAppliedUpstreamFingerprint() {
+        return metadataRepository.findByMetaKey(APPLIED_UPSTREAM_FINGERPRINT)
+                .map(AppMetadata::getMetaValue)
+                .orElse(null);
+    }
+
+    private void save(String key, String value, Instant timestamp) {
         AppMetadata metadata = metadataRepository
-                .findByMetaKey("last_refreshed_at")
+                .findByMetaKey(key)
                 .orElseGet(() -> {
                     AppMetadata md = new AppMetadata();
-                    md.setMetaKey("last_refreshed_at");
+                    md.setMetaKey(key);
                     return md;
                 });
 
-        metadata.setMetaValue(timestamp.toString());
+        metadata.setMetaValue(value);
         metadata.setUpdatedAt(timestamp);
         metadataRepository.save(metadata);
     }
-
-    @Override
-    public Instant getLastRefreshedAt() {
-        return metadataRepository.findByMetaKey("last_refreshed_at")
-                .map(m -> Instant.parse(m.getMetaValue()))
-                .orElse(null);
-    }
 }
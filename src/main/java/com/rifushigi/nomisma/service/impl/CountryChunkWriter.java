@@ -0,0 +1,49 @@
+package com.rifushigi.nomisma.service.impl;
+
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.repository.CountryBulkRepository.UpsertResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Collects refreshed countries into fixed-size chunks and hands each full chunk to
+ * the writer, so ingestion never holds more than one chunk of entities however long
+ * the upstream payload is. Not thread-safe; one writer serves one refresh.
+ */
+final class CountryChunkWriter {
+
+    private final int chunkSize;
+    private final Function<List<Country>, UpsertResult> writer;
+    private List<Country> chunk;
+    private UpsertResult result = UpsertResult.NONE;
+
+    CountryChunkWriter(int chunkSize, Function<List<Country>, UpsertResult> writer) {
+        this.chunkSize = chunkSize;
+        this.writer = writer;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    void add(Country country) {
+        chunk.add(country);
+        if (chunk.size() == chunkSize) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        result = result.plus(writer.apply(chunk));
+        chunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Totals of the chunks written so far.
+     */
+    UpsertResult result() {
+        return result;
+    }
+}
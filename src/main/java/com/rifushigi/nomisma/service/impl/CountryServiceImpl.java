@@ -1,415 +1,517 @@
 package com.rifushigi.nomisma.service.impl;
 
+import com.rifushigi.nomisma.config.ExecutorConfig;
+import com.rifushigi.nomisma.config.RefreshConfig;
 import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
 import com.rifushigi.nomisma.dto.CountrySummaryResponseDTO;
 import com.rifushigi.nomisma.dto.ExternalCountryDTO;
+import com.rifushigi.nomisma.dto.ExternalDataDTO;
+import com.rifushigi.nomisma.dto.ExternalExchangeRateDTO;
+import com.rifushigi.nomisma.dto.ExternalRatesDTO;
+import com.rifushigi.nomisma.dto.RefreshJobResponseDTO;
 import com.rifushigi.nomisma.entity.Country;
 import com.rifushigi.nomisma.exception.FieldValidationException;
 import com.rifushigi.nomisma.exception.NotFoundException;
+import com.rifushigi.nomisma.image.ChartData;
+import com.rifushigi.nomisma.image.ChartMetric;
+import com.rifushigi.nomisma.image.ChartRequest;
+import com.rifushigi.nomisma.image.SummaryChartCache;
+import com.rifushigi.nomisma.image.SummaryChartRenderer;
+import com.rifushigi.nomisma.image.SummaryImage;
+import com.rifushigi.nomisma.image.SummaryImageStore;
 import com.rifushigi.nomisma.projection.CountryGdpProjection;
+import com.rifushigi.nomisma.rates.CurrencyRateTableHolder;
+import com.rifushigi.nomisma.refresh.RefreshJob;
+import com.rifushigi.nomisma.refresh.RefreshJobCoordinator;
+import com.rifushigi.nomisma.refresh.RefreshPhase;
+import com.rifushigi.nomisma.refresh.RefreshScheduler;
+import com.rifushigi.nomisma.repository.CountryBulkRepository;
 import com.rifushigi.nomisma.repository.CountryRepository;
 import com.rifushigi.nomisma.service.CountryService;
-import jakarta.transaction.Transactional;
+import com.rifushigi.nomisma.snapshot.CachedResponse;
+import com.rifushigi.nomisma.snapshot.CountryIndex;
+import com.rifushigi.nomisma.snapshot.CountryListing;
+import com.rifushigi.nomisma.snapshot.CountryListingStreamer;
+import com.rifushigi.nomisma.snapshot.CountryLookup;
+import com.rifushigi.nomisma.snapshot.CountryResponseCache;
+import com.rifushigi.nomisma.snapshot.CountrySeedFile;
+import com.rifushigi.nomisma.snapshot.CountrySnapshot;
+import com.rifushigi.nomisma.snapshot.CountrySnapshotHolder;
+import com.rifushigi.nomisma.snapshot.CountrySortKey;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.geom.RoundRectangle2D;
-import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.NumberFormat;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class CountryServiceImpl implements CountryService {
 
+    private static final CountryFilterDTO UNFILTERED = new CountryFilterDTO(null, null, null, null, null);
+
     private final ExternalApiServiceImpl externalApiService;
     private final AppMetadataServiceImpl metadataService;
+    private final ExchangeRateServiceImpl exchangeRateService;
     private final CountryRepository countryRepository;
+    private final CountryBulkRepository countryBulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CountrySnapshotHolder snapshotHolder;
+    private final CountryResponseCache responseCache;
+    private final CountryListingStreamer listingStreamer;
+    private final CountrySeedFile seedFile;
+    private final SummaryImageStore summaryImages;
+    private final SummaryChartRenderer chartRenderer;
+    private final SummaryChartCache chartCache;
+    @Qualifier(RefreshConfig.COUNTRY_REFRESH_JOBS)
+    private final RefreshJobCoordinator refreshJobs;
+    @Qualifier(RefreshConfig.RATES_REFRESH_JOBS)
+    private final RefreshJobCoordinator ratesRefreshJobs;
+    @Qualifier(RefreshConfig.COUNTRY_REFRESH_SCHEDULE)
+    private final RefreshScheduler refreshScheduler;
+    @Qualifier(RefreshConfig.RATES_REFRESH_SCHEDULE)
+    private final RefreshScheduler ratesRefreshScheduler;
+    private final CurrencyRateTableHolder rateTableHolder;
+    @Qualifier(ExecutorConfig.RENDER_EXECUTOR)
+    private final AsyncTaskExecutor renderExecutor;
+    @Qualifier(ExecutorConfig.WARMUP_EXECUTOR)
+    private final AsyncTaskExecutor warmupExecutor;
+
+    // Rates publication the table was last brought up to date with, by either kind of refresh
+    private volatile Instant appliedRatesPublishedAt;
+
+    // Full and rates-only jobs coalesce on their own coordinators but run one at a time, so
+    // a full refresh that fetched older rates cannot land on top of a rates-only run
+    private final ReentrantLock tableWrites = new ReentrantLock();
 
     @Override
-    public List<Country> getAllCountries(CountryFilterDTO filters) {
-        Specification<Country> spec = buildSpecification(filters);
-        Sort sort = buildSort(filters);
-        return countryRepository.findAll(spec, sort);
-    }
-
-    private Specification<Country> buildSpecification(CountryFilterDTO filters) {
-        Specification<Country> spec = Specification.unrestricted();
-
-        if (filters.currency() != null && !filters.currency().isBlank()) {
-            spec = spec.and((root, _, criteriaBuilder) ->
-                    criteriaBuilder.equal(root.get("currencyCode"), filters.currency()));
-        }
-
-        if (filters.region() != null && !filters.region().isBlank()) {
-            spec = spec.and((root, _, criteriaBuilder) ->
-                    criteriaBuilder.equal(root.get("region"), filters.region()));
-        }
-
-        return spec;
+    public List<CountryResponseDTO> getAllCountries(CountryFilterDTO filters) {
+        return snapshotHolder.get().query(filters);
     }
 
-    private Sort buildSort(CountryFilterDTO filters) {
-        if (filters.sort() == null || filters.sort().isBlank()) {
-            return Sort.unsorted();
-        }
-
-        String[] sortInfo = filters.sort().split("_");
-        if (sortInfo.length != 2) {
-            return Sort.unsorted();
-        }
-        String sortDirection = sortInfo[1];
-        String entityField = getEntityField(sortInfo);
-
-        // Validate the field exists on the entity to prevent 500 s
+    @Override
+    public CachedResponse getCountriesResponse(CountryFilterDTO filters) {
         try {
-            Country.class.getDeclaredField(entityField);
-        } catch (NoSuchFieldException e) {
-            return Sort.unsorted();
-        }
-
-        if (sortDirection.equalsIgnoreCase("desc")) {
-            return Sort.by(entityField).descending();
-        } else {
-            return Sort.by(entityField).ascending();
+            return responseCache.get(filters);
+        } catch (IllegalArgumentException e) {
+            throw new FieldValidationException("Invalid pagination parameters", Map.of("pagination", e.getMessage()));
         }
     }
 
-    private static String getEntityField(String[] sortInfo) {
-        String sortBy = sortInfo[0];
-
-        // Map API field names to entity fields
-        Map<String, String> sortFieldMap = new HashMap<>();
-        sortFieldMap.put("name", "name");
-        sortFieldMap.put("population", "population");
-        sortFieldMap.put("currency_code", "currencyCode");
-        sortFieldMap.put("exchange_rate", "exchangeRate");
-        sortFieldMap.put("estimated_gdp", "estimatedGdp");
-        sortFieldMap.put("gdp", "estimatedGdp");
-
-        return sortFieldMap.getOrDefault(sortBy, sortBy);
+    @Override
+    public CountryListing getCountryListing(CountryFilterDTO filters) {
+        return listingStreamer.open(filters);
     }
 
     @Override
-    public Country getCountryByName(String name) {
-        Country country = countryRepository.getCountryByName(name).orElseThrow(() -> new NotFoundException(
-                "Resource not found",
-                "Country with name '" + name + "' does not exist"
-        ));
-
-        Map<String, String> invalidFields = new HashMap<>();
+    public Optional<CountryListing> getLargeCountryListing(CountryFilterDTO filters) {
+        return listingStreamer.openIfLarge(filters);
+    }
 
-        if (country.getPopulation() == null) {
-            invalidFields.put("population", "Field 'population' is missing");
-        }
-        if (country.getCurrencyCode() == null || country.getCurrencyCode().trim().isEmpty()) {
-            invalidFields.put("currency_code", "Field 'currency_code' is missing or empty");
-        }
-        if (country.getExchangeRate() == null) {
-            invalidFields.put("exchange_rate", "Field 'exchange_rate' is missing");
-        }
-        if (country.getEstimatedGdp() == null) {
-            invalidFields.put("estimated_gdp", "Field 'estimated_gdp' is missing");
+    /**
+     * Answered from the snapshot's name index; the database is only consulted for a
+     * name the snapshot does not know yet, such as a row committed moments ago.
+     */
+    @Override
+    public CountryResponseDTO getCountryByName(String name) {
+        CountryLookup lookup = snapshotHolder.get().index().findByName(name);
+        if (lookup == null) {
+            lookup = countryRepository.findViewByNameKey(Country.normalizeName(name))
+                    .map(CountryLookup::of)
+                    .orElseThrow(() -> new NotFoundException(
+                            "Resource not found",
+                            "Country with name '" + name + "' does not exist"
+                    ));
         }
 
-        if (!invalidFields.isEmpty()) {
-            throw new FieldValidationException("Invalid country data", invalidFields);
+        if (!lookup.isValid()) {
+            throw new FieldValidationException("Invalid country data", lookup.invalidFields());
         }
 
-        return country;
+        return lookup.country();
     }
 
     @Transactional
     @Override
     public void deleteCountryByName(String name) {
-        long deletedCount = countryRepository.deleteByName(name);
+        String nameKey = Country.normalizeName(name);
+        long deletedCount = countryRepository.deleteByNameKey(nameKey);
         if (deletedCount == 0) {
             throw new NotFoundException("Failed to delete country", "No country found with name: " + name);
         }
+        // A refresh loading the staging table right now must not bring the row back on swap
+        countryBulkRepository.deleteStaged(nameKey);
+        // The table no longer matches the applied payloads; let the next refresh restore the row
+        metadataService.updateAppliedUpstreamFingerprint(null);
+        snapshotHolder.removeAfterCommit(name);
     }
 
     @Override
     public CountrySummaryResponseDTO getCountriesWithRefreshTimestamp() {
-        Long countriesCount = countryRepository.count();
+        Long countriesCount = (long) snapshotHolder.get().size();
         Instant lastRefreshed = metadataService.getLastRefreshedAt();
 
-        return new CountrySummaryResponseDTO(countriesCount, lastRefreshed.toString());
+        return new CountrySummaryResponseDTO(
+                countriesCount,
+                lastRefreshed.toString(),
+                refreshScheduler.nextRunAt().map(Instant::toString).orElse(null),
+                ratesRefreshScheduler.nextRunAt().map(Instant::toString).orElse(null),
+                externalApiService.getUpstreamStatus());
     }
 
+    /**
+     * Renders the default chart, the top five countries by GDP, and publishes it as the
+     * current summary image.
+     */
     @Override
     public void generateSummaryImage(long totalCountries, List<CountryGdpProjection> top5ByGdp, String timestamp) {
-        int width = 900;
-        int height = 700;
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
-
-        // Enable antialiasing for smoother text and shapes
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
-        // Background with subtle gradient
-        GradientPaint bgGradient = new GradientPaint(
-                0, 0, new Color(250, 251, 252),
-                0, height, new Color(244, 246, 248)
-        );
-        g.setPaint(bgGradient);
-        g.fillRect(0, 0, width, height);
-
-        // Header section with colored accent
-        g.setColor(new Color(59, 130, 246)); // blue accent
-        g.fillRect(0, 0, width, 8);
-
-        // Title
-        g.setColor(new Color(15, 23, 42)); // darker for better contrast
-        g.setFont(new Font("SansSerif", Font.BOLD, 36));
-        g.drawString("Country Summary", 50, 80);
-
-        // Metadata section with icons (using simple shapes)
-        g.setFont(new Font("SansSerif", Font.PLAIN, 16));
-        g.setColor(new Color(100, 116, 139));
-
-        // Clock icon simulation
-        g.fillOval(50, 110, 4, 4);
-        g.drawString("Last Refreshed: " + timestamp, 65, 120);
-
-        // Globe icon simulation
-        g.fillOval(50, 140, 4, 4);
-        g.drawString("Total Countries: " + totalCountries, 65, 150);
-
-        // Card container for top 5
-        g.setColor(Color.WHITE);
-        g.fill(new RoundRectangle2D.Double(30, 190, width - 60, 450, 20, 20));
-
-        // Subtle shadow for card
-        g.setColor(new Color(0, 0, 0, 8));
-        g.fill(new RoundRectangle2D.Double(32, 192, width - 64, 450, 20, 20));
-
-        // Subtitle
-        g.setColor(new Color(15, 23, 42));
-        g.setFont(new Font("SansSerif", Font.BOLD, 24));
-        g.drawString("Top 5 Countries by Estimated GDP", 50, 235);
-
-        // Divider line under subtitle
-        g.setColor(new Color(226, 232, 240));
-        g.fillRect(50, 250, width - 100, 2);
-
-        // Chart area setup
-        int barStartY = 300;
-        int barSpacing = 75;
-        int barHeight = 40;
-        double maxGdp = top5ByGdp.stream()
-                .mapToDouble(p -> p.getEstimatedGdp() != null ? p.getEstimatedGdp() : 0)
-                .max()
-                .orElse(1);
-
-        NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
-
-        // Professional monochromatic color scheme (shades of blue)
-        Color[] barColors = {
-                new Color(37, 99, 235),    // primary blue
-                new Color(59, 130, 246),   // lighter blue
-                new Color(96, 165, 250),   // even lighter
-                new Color(147, 197, 253),  // lighter still
-                new Color(191, 219, 254)   // lightest blue
-        };
-
-        for (int i = 0; i < top5ByGdp.size(); i++) {
-            CountryGdpProjection p = top5ByGdp.get(i);
-            String name = p.getName();
-            double gdp = p.getEstimatedGdp() != null ? p.getEstimatedGdp() : 0;
-
-            int y = barStartY + (i * barSpacing);
-
-            // Rank badge
-            g.setColor(new Color(241, 245, 249));
-            g.fillOval(50, y - 25, 35, 35);
-            g.setColor(barColors[i]);
-            g.setFont(new Font("SansSerif", Font.BOLD, 18));
-            String rank = String.valueOf(i + 1);
-            FontMetrics fm = g.getFontMetrics();
-            int rankX = 50 + (35 - fm.stringWidth(rank)) / 2;
-            int rankY = y - 25 + ((35 - fm.getHeight()) / 2) + fm.getAscent();
-            g.drawString(rank, rankX, rankY);
-
-            // Country name
-            g.setFont(new Font("SansSerif", Font.BOLD, 17));
-            g.setColor(new Color(30, 41, 59));
-            g.drawString(name, 100, y - 5);
-
-            // GDP value with better positioning
-            String formattedGdp = formatGdp(gdp, numberFormat);
-            g.setFont(new Font("SansSerif", Font.BOLD, 16));
-            g.setColor(new Color(71, 85, 105));
-            FontMetrics valueFm = g.getFontMetrics();
-            int valueWidth = valueFm.stringWidth(formattedGdp);
-            g.drawString(formattedGdp, width - 80 - valueWidth, y - 5);
-
-            // Bar background with rounded corners
-            g.setColor(new Color(241, 245, 249));
-            g.fill(new RoundRectangle2D.Double(100, y + 5, width - 200, barHeight, barHeight, barHeight));
-
-            // Bar fill with a single color
-            double ratio = gdp / maxGdp;
-            int barWidth = (int) ((width - 200) * ratio);
-
-            if (barWidth > 0) {
-                // Gradient for depth
-                GradientPaint barGradient = new GradientPaint(
-                        100, y + 5, barColors[i],
-                        100, y + 5 + barHeight, adjustBrightness(barColors[i])
-                );
-                g.setPaint(barGradient);
-                g.fill(new RoundRectangle2D.Double(100, y + 5, barWidth, barHeight, barHeight, barHeight));
-
-                // Add a subtle highlight
-                g.setColor(new Color(255, 255, 255, 40));
-                g.fill(new RoundRectangle2D.Double(100, y + 5, barWidth, (double) barHeight / 2, barHeight, barHeight));
+        List<ChartData.Bar> bars = top5ByGdp.stream()
+                .map(p -> {
+                    double gdp = p.getEstimatedGdp() != null ? p.getEstimatedGdp() : 0;
+                    return new ChartData.Bar(p.getName(), gdp, ChartMetric.GDP.format(gdp));
+                })
+                .toList();
+        ChartData data = new ChartData("Top 5 Countries by Estimated GDP", timestamp, totalCountries, bars);
+        summaryImages.publish(chartRenderer.render(ChartRequest.DEFAULT, data));
+    }
+
+    /**
+     * Renders, or finds in the chart cache, the chart for {@code request} over the current
+     * snapshot. Ranking uses the snapshot's sorted index, so a render reads only the top rows.
+     */
+    @Override
+    public CompletableFuture<SummaryImage> getSummaryChart(ChartRequest request) {
+        CountrySnapshot snapshot = snapshotHolder.get();
+        return chartCache.get(request, snapshot.version(), () ->
+                SummaryImage.of(chartRenderer.render(request, chartData(request, snapshot)), Instant.now()));
+    }
+
+    private ChartData chartData(ChartRequest request, CountrySnapshot snapshot) {
+        ChartMetric metric = request.metric();
+        CountryIndex.Page top = snapshot.index().page(
+                request.region(), null, new CountrySortKey.Order(metric.sortKey(), true), null, request.top());
+        List<ChartData.Bar> bars = new ArrayList<>(request.top());
+        String regionName = null;
+        for (CountryResponseDTO country : top.rows()) {
+            BigDecimal value = metric.valueOf(country);
+            if (value != null) {
+                bars.add(new ChartData.Bar(country.name(), value.doubleValue(), metric.format(value.doubleValue())));
             }
+            regionName = country.region();
         }
+        String subtitle = "Top " + request.top() + " Countries by " + metric.label()
+                + (request.region() != null ? " in " + (regionName != null ? regionName : request.region()) : "");
+        Instant lastRefreshed = metadataService.getLastRefreshedAt();
+        return new ChartData(
+                subtitle,
+                lastRefreshed != null ? lastRefreshed.toString() : "never",
+                snapshot.index().count(request.region(), null),
+                bars);
+    }
 
-        // Footer with better styling
-        g.setFont(new Font("SansSerif", Font.PLAIN, 13));
-        g.setColor(new Color(148, 163, 184));
-        String footerText = "Generated automatically by Nomisma API";
-        FontMetrics footerFm = g.getFontMetrics();
-        int footerX = (width - footerFm.stringWidth(footerText)) / 2;
-        g.drawString(footerText, footerX, height - 35);
+    @Override
+    public SummaryImage getSummaryImage() {
+        return summaryImages.get().orElseThrow(() -> new NotFoundException(
+                "Summary image not found",
+                "No summary image has been rendered yet"));
+    }
 
-        g.dispose();
+    /**
+     * Starts a refresh job, or joins the one already in flight, and returns its status.
+     */
+    @Override
+    public RefreshJobResponseDTO refreshCountries() {
+        return startRefreshJob().toResponse();
+    }
 
-        try {
-            File cacheDir = new File("cache");
-            if (!cacheDir.exists()) {
-                boolean created = cacheDir.mkdirs();
-                if (!created) {
-                    log.warn("Could not create cache directory at {}", cacheDir.getAbsolutePath());
-                }
-            }
-            ImageIO.write(image, "png", new File("cache/summary.png"));
-        } catch (IOException e) {
-            log.error("An error occurred while trying to save the image: {}", e.getMessage());
-        }
+    public RefreshJob startRefreshJob() {
+        return refreshJobs.submit(job -> writingTable(job, this::refresh));
     }
 
-    private Color adjustBrightness(Color color) {
-        return new Color(
-                Math.max(0, Math.min(255, (int)(color.getRed() * (float) 0.85))),
-                Math.max(0, Math.min(255, (int)(color.getGreen() * (float) 0.85))),
-                Math.max(0, Math.min(255, (int)(color.getBlue() * (float) 0.85))),
-                color.getAlpha()
-        );
+    /**
+     * Starts a rates-only refresh job, or joins the one already in flight, and returns its status.
+     */
+    @Override
+    public RefreshJobResponseDTO refreshRates() {
+        return startRatesRefreshJob().toResponse();
     }
 
-    private String formatGdp(Double gdp, NumberFormat formatter) {
-        if (gdp >= 1_000_000_000_000.0) {
-            return "$" + formatter.format(gdp / 1_000_000_000_000.0) + "T";
-        } else if (gdp >= 1_000_000_000.0) {
-            return "$" + formatter.format(gdp / 1_000_000_000.0) + "B";
-        } else if (gdp >= 1_000_000.0) {
-            return "$" + formatter.format(gdp / 1_000_000.0) + "M";
-        } else {
-            return "$" + formatter.format(gdp);
-        }
+    public RefreshJob startRatesRefreshJob() {
+        return ratesRefreshJobs.submit(job -> writingTable(job, this::refreshRates));
     }
 
     @Override
-    public File getSummaryImage() {
-        File imageFile = new File("cache/summary.png");
-        if (imageFile.exists() && imageFile.isFile()) {
-            return imageFile;
-        } else {
-            throw new NotFoundException(
-                    "Summary image not found",
-                    "No cached summary image was found at " + imageFile.getAbsolutePath()
-            );
+    public RefreshJobResponseDTO getRefreshJob(String id) {
+        UUID jobId;
+        try {
+            jobId = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            jobId = null;
         }
+        return Optional.ofNullable(jobId)
+                .flatMap(uuid -> refreshJobs.find(uuid).or(() -> ratesRefreshJobs.find(uuid)))
+                .map(RefreshJob::toResponse)
+                .orElseThrow(() -> new NotFoundException(
+                        "Resource not found",
+                        "Refresh job '" + id + "' does not exist or has expired"));
     }
 
-    @Override
-    @Transactional
-    @Async
-    public void refreshCountries() {
-        log.info("Refresh::started");
-        fetchAllCountries();
+    private void writingTable(RefreshJob job, Consumer<RefreshJob> work) {
+        tableWrites.lock();
+        try {
+            work.accept(job);
+        } finally {
+            tableWrites.unlock();
+        }
+    }
+
+    private void refresh(RefreshJob job) {
+        log.info("Refresh::job {} started", job.getId());
+        CountryBulkRepository.UpsertResult result = fetchAllCountries(job);
         log.info("Refresh::Done refreshing");
+        publish(job, result.hasChanges());
+    }
+
+    /**
+     * Fetches only the exchange rates and, unless that publication is no newer than the one
+     * last applied, rewrites {@code exchange_rate} and {@code estimated_gdp} for every country in
+     * one batched statement per currency. No {@link Country} entity is loaded and the
+     * countries API is not called, so this can run far more often than a full refresh.
+     * Row fingerprints do not cover the rate, and the applied upstream fingerprint takes
+     * the new rates payload, so a full refresh of the same payloads still skips.
+     */
+    private void refreshRates(RefreshJob job) {
+        log.info("Refresh::rates job {} started", job.getId());
+        Instant now = Instant.now();
+        job.advance(RefreshPhase.FETCHING);
+        ExternalRatesDTO fetched = externalApiService.fetchExchangeRate();
+        ExternalExchangeRateDTO upstream = fetched.exchangeRate();
+        Instant publishedAt = ratesPublishedAt(upstream, now);
+        rateTableHolder.publishIfNewer(publishedAt, upstream.rates());
+        if (appliedRatesPublishedAt != null && !publishedAt.isAfter(appliedRatesPublishedAt)) {
+            log.info("Refresh::rates published at {} are already applied, nothing to do", publishedAt);
+            return;
+        }
+        recordRateHistory(job, upstream.rates(), publishedAt);
+
+        job.advance(RefreshPhase.WRITING);
+        Map<String, BigDecimal> rates = new HashMap<>();
+        upstream.rates().forEach((code, rate) -> {
+            if (code != null && code.length() == 3 && rate != null && rate > 0) {
+                rates.put(code.toUpperCase(), BigDecimal.valueOf(rate).setScale(6, RoundingMode.HALF_UP));
+            }
+        });
+        int updated = holdingConnection(job, () ->
+                transactionTemplate.execute(_ -> countryBulkRepository.updateRates(rates, now)));
+        job.record(new CountryBulkRepository.UpsertResult(0, updated, 0));
+        if (updated > 0) {
+            snapshotHolder.rebuild();
+        }
+        String applied = metadataService.getAppliedUpstreamFingerprint();
+        if (applied != null) {
+            // A currency this publication dropped keeps its old rate, where a full refresh would clear it
+            boolean covered = rates.keySet().containsAll(holdingConnection(job, countryBulkRepository::currencyCodes));
+            metadataService.updateAppliedUpstreamFingerprint(
+                    covered ? ExternalDataDTO.withRates(applied, fetched.fingerprint()) : null);
+        }
+        metadataService.updateLastRefreshedAt(now);
+        appliedRatesPublishedAt = publishedAt;
+        log.info("Refresh::applied {} rates to {} countries in {} ms",
+                rates.size(), updated, job.getConnectionHold().toMillis());
+        publish(job, updated > 0);
+    }
+
+    /**
+     * Brings the derived artefacts in line with the table: cached listings, the seed file
+     * and the summary image are only rebuilt when a row changed.
+     */
+    private void publish(RefreshJob job, boolean changed) {
+        job.advance(RefreshPhase.PUBLISHING);
+        if (changed) {
+            warmUpListings();
+        }
+        if (changed || !seedFile.exists()) {
+            try {
+                seedFile.write(snapshotHolder.get());
+            } catch (IOException e) {
+                log.warn("Refresh::could not write the seed file: {}", e.getMessage());
+            }
+        }
+        if (!changed && summaryImages.get().isPresent()) {
+            log.info("Refresh::no country changed, keeping the summary image");
+            return;
+        }
         long totalCountries = countryRepository.count();
         String lastRefreshed = metadataService.getLastRefreshedAt().toString();
         List<CountryGdpProjection> topFiveByGdp = countryRepository.findTop5ByOrderByEstimatedGdpDesc();
-        generateSummaryImage(totalCountries, topFiveByGdp, lastRefreshed);
+        // Drawing is CPU-bound; it runs on the bounded render pool, not on the refresh thread
+        try {
+            CompletableFuture.runAsync(() -> generateSummaryImage(totalCountries, topFiveByGdp, lastRefreshed), renderExecutor)
+                    .join();
+        } catch (RejectedExecutionException e) {
+            // The refresh is already committed; a busy pool must not fail it
+            log.warn("Refresh::render pool is saturated, rendering the summary image on the refresh thread");
+            generateSummaryImage(totalCountries, topFiveByGdp, lastRefreshed);
+        }
     }
 
-    public void fetchAllCountries() {
-        List<ExternalCountryDTO> countries = externalApiService.getCountries();
-        Map<String, Double> exchangeRate = externalApiService.getExchangeRate().rates();
-        Instant now = Instant.now();
-        List<Country> data = new ArrayList<>();
-
-        Map<String, Country> existingCountries = countryRepository.findAll()
-                .stream()
-                .collect(Collectors.toMap(
-                        c -> c.getName().toLowerCase(),
-                            c -> c
-                ));
-
-        log.info("Fetch::start looping through countries");
-        for (ExternalCountryDTO xCountry : countries) {
-            String countryName = xCountry.name().toLowerCase();
-            Country country = existingCountries.getOrDefault(countryName, new Country());
-
-            country.setName(xCountry.name());
-            country.setPopulation(xCountry.population());
-            country.setFlagUrl(xCountry.flag());
-            country.setRegion(xCountry.region());
-            country.setCapital(xCountry.capital());
-            country.setLastRefreshedAt(now);
-
-            if (xCountry.currencies() == null) {
-                country.setCurrencyCode(null);
-                country.setExchangeRate(null);
-                country.setEstimatedGdp(BigDecimal.valueOf(0));
-                data.add(country);
-                continue;
+    /**
+     * Serializes the unfiltered listing of the current snapshot in the background, so the
+     * first request after a new snapshot is published finds it cached. Listings large enough
+     * to be streamed are not cached and are skipped.
+     */
+    public void warmUpListings() {
+        warmupExecutor.execute(() -> {
+            if (getLargeCountryListing(UNFILTERED).isEmpty()) {
+                getCountriesResponse(UNFILTERED);
+                log.info("Warmup::cached the unfiltered country listing");
             }
+        });
+    }
 
-            String currency = xCountry.currencies().getFirst().code().toUpperCase();
-            country.setCurrencyCode(currency);
+    /**
+     * Brings the cached upstream payloads up to date and, unless they are exactly the ones
+     * the table was last built from, streams the countries payload from disk, mapping each
+     * element as it is parsed and upserting it into the staging table in chunks of
+     * {@link CountryBulkRepository#ROWS_PER_STATEMENT}, each in its own short transaction.
+     * Only rows whose content fingerprint changed are written. If any were, the staging
+     * table is swapped in and the snapshot rebuilt; a failure before the swap leaves the
+     * live table untouched. The dataset refresh timestamp is bumped either way, and the
+     * conversion rate table is rebuilt whenever the rates publication is newer than its own.
+     * Each chunk's counts, and every stretch spent holding a connection, are reported to {@code job}.
+     */
+    public CountryBulkRepository.UpsertResult fetchAllCountries(RefreshJob job) {
+        Instant now = Instant.now();
+        job.advance(RefreshPhase.FETCHING);
+        ExternalDataDTO upstream = externalApiService.fetchAll();
+        Instant ratesPublishedAt = ratesPublishedAt(upstream.exchangeRate(), now);
+        rateTableHolder.publishIfNewer(ratesPublishedAt, upstream.exchangeRate().rates());
+        if (upstream.fingerprint().equals(metadataService.getAppliedUpstreamFingerprint())) {
+            metadataService.updateLastRefreshedAt(now);
+            appliedRatesPublishedAt = ratesPublishedAt;
+            log.info("Fetch::upstream payloads unchanged since the last refresh, nothing to apply");
+            return CountryBulkRepository.UpsertResult.NONE;
+        }
 
-            if (!exchangeRate.containsKey(currency) || exchangeRate.get(currency) == null){
-                country.setExchangeRate(null);
-                country.setEstimatedGdp(null);
-                data.add(country);
-                continue;
-            }
+        Map<String, Double> exchangeRate = upstream.exchangeRate().rates();
+        recordRateHistory(job, upstream.exchangeRate().rates(), ratesPublishedAt);
+        CountryChunkWriter writer = new CountryChunkWriter(
+                CountryBulkRepository.ROWS_PER_STATEMENT,
+                chunk -> {
+                    CountryBulkRepository.UpsertResult written = holdingConnection(job, () ->
+                            transactionTemplate.execute(_ -> countryBulkRepository.upsertStaged(chunk)));
+                    job.record(written);
+                    return written;
+                });
+
+        job.advance(RefreshPhase.WRITING);
+        int staged = holdingConnection(job, countryBulkRepository::prepareStaging);
+        log.info("Fetch::copied {} live rows to staging, start streaming countries", staged);
+        int streamed = externalApiService.streamCountries(upstream.countriesBody(), xCountry ->
+                writer.add(toCountry(xCountry, exchangeRate, now)));
+        writer.flush();
+
+        CountryBulkRepository.UpsertResult result = writer.result();
+        if (result.hasChanges()) {
+            holdingConnection(job, () -> {
+                countryBulkRepository.swapStaging();
+                return null;
+            });
+            snapshotHolder.rebuild();
+        }
+        metadataService.updateLastRefreshedAt(now);
+        metadataService.updateAppliedUpstreamFingerprint(upstream.fingerprint());
+        appliedRatesPublishedAt = ratesPublishedAt;
+        log.info("Fetch::streamed {} countries: {} inserted, {} updated, {} unchanged; "
+                        + "held a connection for {} ms in total, {} ms at most",
+                streamed, result.inserted(), result.updated(), result.unchanged(),
+                job.getConnectionHold().toMillis(), job.getLongestConnectionHold().toMillis());
+        return result;
+    }
+
+    /**
+     * Keeps the full rate map, not just the rates countries use. A failure here is logged
+     * and does not stop the countries from being refreshed.
+     */
+    private void recordRateHistory(RefreshJob job, Map<String, Double> rates, Instant observedAt) {
+        try {
+            holdingConnection(job, () -> exchangeRateService.recordRates(observedAt, rates));
+        } catch (RuntimeException e) {
+            log.warn("Fetch::could not record the exchange rate history: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The provider's publication time of the rates, or {@code now} when it does not say.
+     */
+    private static Instant ratesPublishedAt(ExternalExchangeRateDTO rates, Instant now) {
+        Long publishedAt = rates.timeLastUpdateUnix();
+        return publishedAt != null ? Instant.ofEpochSecond(publishedAt) : now;
+    }
+
+    private static <T> T holdingConnection(RefreshJob job, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            job.recordConnectionHold(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
 
-            double rate = exchangeRate.get(currency);
-            double randomMultiplier = (Math.random() * 1001) + 1000;
-            double computeEGdp = (xCountry.population() * randomMultiplier) / rate;
-            BigDecimal eGdp = BigDecimal.valueOf(computeEGdp).setScale(0, RoundingMode.HALF_UP);
+    private Country toCountry(ExternalCountryDTO xCountry, Map<String, Double> exchangeRate, Instant now) {
+        Country country = new Country();
+
+        country.setName(xCountry.name());
+        country.setPopulation(xCountry.population());
+        country.setFlagUrl(xCountry.flag());
+        country.setRegion(xCountry.region());
+        country.setCapital(xCountry.capital());
+        country.setLastRefreshedAt(now);
+
+        if (xCountry.currencies() == null || xCountry.currencies().isEmpty()) {
+            country.setCurrencyCode(null);
+            country.setExchangeRate(null);
+            country.setEstimatedGdp(BigDecimal.valueOf(0));
+            return country;
+        }
 
-            country.setExchangeRate(
-                    BigDecimal.valueOf(exchangeRate.get(currency)).setScale(2, RoundingMode.HALF_UP)
-            );
-            country.setEstimatedGdp(eGdp);
+        // currency_code is CHAR(3); placeholders such as "(none)" are stored as no currency
+        String code = xCountry.currencies().getFirst().code();
+        String currency = code != null && code.length() == 3 ? code.toUpperCase() : null;
+        country.setCurrencyCode(currency);
 
-            data.add(country);
+        if (currency == null || !exchangeRate.containsKey(currency) || exchangeRate.get(currency) == null){
+            country.setExchangeRate(null);
+            country.setEstimatedGdp(null);
+            return country;
         }
 
-        metadataService.updateLastRefreshedAt(now);
-        countryRepository.saveAll(data);
+        double rate = exchangeRate.get(currency);
+        double randomMultiplier = (Math.random() * 1001) + 1000;
+        double computeEGdp = (xCountry.population() * randomMultiplier) / rate;
+        BigDecimal eGdp = BigDecimal.valueOf(computeEGdp).setScale(0, RoundingMode.HALF_UP);
+
+        country.setExchangeRate(
+                BigDecimal.valueOf(exchangeRate.get(currency)).setScale(6, RoundingMode.HALF_UP)
+        );
+        country.setEstimatedGdp(eGdp);
+
+        return country;
     }
-}
\ No newline at end of file
+}
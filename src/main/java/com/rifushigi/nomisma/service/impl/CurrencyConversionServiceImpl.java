@@ -0,0 +1,119 @@
+package com.rifushigi.nomisma.service.impl;
+
+import com.rifushigi.nomisma.dto.ConversionBatchRequestDTO;
+import com.rifushigi.nomisma.dto.ConversionBatchResponseDTO;
+import com.rifushigi.nomisma.dto.ConversionRequestDTO;
+import com.rifushigi.nomisma.dto.ConversionResponseDTO;
+import com.rifushigi.nomisma.exception.FieldValidationException;
+import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import com.rifushigi.nomisma.rates.CurrencyRateTable;
+import com.rifushigi.nomisma.rates.CurrencyRateTableHolder;
+import com.rifushigi.nomisma.service.CurrencyConversionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CurrencyConversionServiceImpl implements CurrencyConversionService {
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final CurrencyRateTableHolder rateTableHolder;
+
+    @Override
+    public ConversionResponseDTO convert(String from, String to, String amount) {
+        CurrencyRateTable table = currentTable();
+        int fromIndex = resolve(table, "from", from);
+        int toIndex = resolve(table, "to", to);
+        double value = requireAmount("amount", parseAmount(amount));
+        return new ConversionResponseDTO(
+                table.codeAt(fromIndex),
+                table.codeAt(toIndex),
+                value,
+                table.rate(fromIndex, toIndex),
+                table.convert(fromIndex, toIndex, value),
+                table.version(),
+                table.publishedAt().toString());
+    }
+
+    /**
+     * Converts every tuple against one rate table, so the whole batch shares a single
+     * snapshot version even if a refresh publishes a new one meanwhile. All tuples are
+     * resolved to matrix rows first; the conversion loop then only touches primitive arrays.
+     * Results are in request order.
+     */
+    @Override
+    public ConversionBatchResponseDTO convertBatch(ConversionBatchRequestDTO request) {
+        List<ConversionRequestDTO> conversions = request != null ? request.conversions() : null;
+        if (conversions == null || conversions.isEmpty()) {
+            throw new FieldValidationException("Invalid conversion request",
+                    Map.of("conversions", "must contain at least one conversion"));
+        }
+        if (conversions.size() > MAX_BATCH_SIZE) {
+            throw new FieldValidationException("Invalid conversion request",
+                    Map.of("conversions", "may contain at most " + MAX_BATCH_SIZE + " conversions"));
+        }
+
+        CurrencyRateTable table = currentTable();
+        int n = conversions.size();
+        int[] fromIndexes = new int[n];
+        int[] toIndexes = new int[n];
+        double[] amounts = new double[n];
+        for (int i = 0; i < n; i++) {
+            ConversionRequestDTO conversion = conversions.get(i);
+            String field = "conversions[" + i + "]";
+            if (conversion == null) {
+                throw new FieldValidationException("Invalid conversion request", Map.of(field, "is required"));
+            }
+            fromIndexes[i] = resolve(table, field + ".from", conversion.from());
+            toIndexes[i] = resolve(table, field + ".to", conversion.to());
+            amounts[i] = requireAmount(field + ".amount", conversion.amount());
+        }
+
+        double[] results = new double[n];
+        for (int i = 0; i < n; i++) {
+            results[i] = table.convert(fromIndexes[i], toIndexes[i], amounts[i]);
+        }
+        return new ConversionBatchResponseDTO(table.version(), table.publishedAt().toString(), results);
+    }
+
+    private CurrencyRateTable currentTable() {
+        CurrencyRateTable table = rateTableHolder.get();
+        if (table.size() == 0) {
+            throw new ServiceUnavailableException(
+                    "External data source unavailable",
+                    "Exchange rates have not been loaded yet");
+        }
+        return table;
+    }
+
+    private static int resolve(CurrencyRateTable table, String field, String code) {
+        int index = table.indexOf(code);
+        if (index < 0) {
+            throw new FieldValidationException("Invalid conversion request",
+                    Map.of(field, code == null ? "is required" : "unknown currency code '" + code + "'"));
+        }
+        return index;
+    }
+
+    private static Double parseAmount(String amount) {
+        if (amount == null || amount.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(amount.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static double requireAmount(String field, Double amount) {
+        if (amount == null || amount.isNaN() || amount.isInfinite()) {
+            throw new FieldValidationException("Invalid conversion request", Map.of(field, "must be a finite number"));
+        }
+        return amount;
+    }
+}
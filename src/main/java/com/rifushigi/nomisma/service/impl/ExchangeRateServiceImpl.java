@@ -0,0 +1,106 @@
+package com.rifushigi.nomisma.service.impl;
+
+import com.rifushigi.nomisma.dto.ExchangeRateSeriesDTO;
+import com.rifushigi.nomisma.exception.FieldValidationException;
+import com.rifushigi.nomisma.rates.CandleAggregator;
+import com.rifushigi.nomisma.rates.RateInterval;
+import com.rifushigi.nomisma.repository.ExchangeRateHistoryRepository;
+import com.rifushigi.nomisma.service.ExchangeRateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExchangeRateServiceImpl implements ExchangeRateService {
+
+    private static final String BASE_CURRENCY = "USD";
+    private static final Duration DEFAULT_WINDOW = Duration.ofDays(30);
+    private static final Duration MAX_WINDOW = Duration.ofDays(5 * 366);
+
+    private final ExchangeRateHistoryRepository historyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Instant lastRecorded;
+
+    /**
+     * Appends every rate of one publication, including currencies no country uses, in one
+     * short transaction. A publication already recorded by this instance is skipped; one
+     * recorded before a restart is written again as a no-op.
+     */
+    @Override
+    public int recordRates(Instant observedAt, Map<String, Double> rates) {
+        if (observedAt.equals(lastRecorded)) {
+            return 0;
+        }
+        Map<String, BigDecimal> points = new TreeMap<>();
+        rates.forEach((code, rate) -> {
+            if (code != null && code.length() == 3 && rate != null && rate > 0) {
+                points.put(code.toUpperCase(Locale.ROOT), BigDecimal.valueOf(rate).setScale(6, RoundingMode.HALF_UP));
+            }
+        });
+        Integer written = transactionTemplate.execute(_ -> historyRepository.append(observedAt, points));
+        lastRecorded = observedAt;
+        log.info("Rates::recorded {} rates published at {}", written, observedAt);
+        return written != null ? written : 0;
+    }
+
+    /**
+     * One currency's series over {@code [from, to)}, downsampled on the server into
+     * open/high/low/close buckets of {@code interval}. The window defaults to the last
+     * 30 days and may span at most five years. Bounds are ISO-8601 instants or dates (UTC midnight).
+     */
+    @Override
+    public ExchangeRateSeriesDTO getHistory(String currency, String from, String to, String interval) {
+        if (currency == null || !currency.matches("[A-Za-z]{3}")) {
+            throw new FieldValidationException("Invalid exchange rate query",
+                    Map.of("currency", "must be a three-letter currency code"));
+        }
+        RateInterval bucket;
+        try {
+            bucket = interval == null || interval.isBlank() ? RateInterval.DAY : RateInterval.parse(interval);
+        } catch (IllegalArgumentException e) {
+            throw new FieldValidationException("Invalid exchange rate query",
+                    Map.of("interval", "must be one of raw, hour, day, week"));
+        }
+        Instant end = to == null || to.isBlank() ? Instant.now() : parseBound("to", to);
+        Instant start = from == null || from.isBlank() ? end.minus(DEFAULT_WINDOW) : parseBound("from", from);
+        if (!start.isBefore(end)) {
+            throw new FieldValidationException("Invalid exchange rate query", Map.of("from", "must be before to"));
+        }
+        if (Duration.between(start, end).compareTo(MAX_WINDOW) > 0) {
+            throw new FieldValidationException("Invalid exchange rate query",
+                    Map.of("from", "the window may span at most " + MAX_WINDOW.toDays() + " days"));
+        }
+
+        String code = currency.toUpperCase(Locale.ROOT);
+        CandleAggregator candles = new CandleAggregator(bucket);
+        historyRepository.scan(code, start, end, candles::add);
+        return new ExchangeRateSeriesDTO(code, BASE_CURRENCY, bucket.label(), start.toString(), end.toString(),
+                candles.finish());
+    }
+
+    private static Instant parseBound(String field, String value) {
+        try {
+            return value.length() == 10
+                    ? LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant()
+                    : Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new FieldValidationException("Invalid exchange rate query",
+                    Map.of(field, "must be an ISO-8601 instant or date"));
+        }
+    }
+}
@@ -1,53 +1,246 @@
 package com.rifushigi.nomisma.service.impl;
 
 import com.rifushigi.nomisma.dto.ExternalCountryDTO;
+import com.rifushigi.nomisma.dto.ExternalDataDTO;
 import com.rifushigi.nomisma.dto.ExternalExchangeRateDTO;
+import com.rifushigi.nomisma.dto.ExternalRatesDTO;
+import com.rifushigi.nomisma.dto.UpstreamStatusDTO;
 import com.rifushigi.nomisma.service.ExternalApiService;
 import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import com.rifushigi.nomisma.upstream.CircuitBreaker;
+import com.rifushigi.nomisma.upstream.UpstreamResponse;
+import com.rifushigi.nomisma.upstream.UpstreamResponseCache;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ExternalApiServiceImpl implements ExternalApiService {
 
+    private static final String COUNTRIES_URI = "/all?fields=name,capital,region,population,flag,currencies";
+    private static final String RATES_URI = "/USD";
+    private static final String COUNTRIES_CACHE = "countries";
+    private static final String RATES_CACHE = "rates-usd";
+
     private final RestClient countryApi;
     private final RestClient exchangeRateApi;
+    private final ObjectMapper objectMapper;
+    private final UpstreamResponseCache upstreamCache;
+    private final CircuitBreaker countryApiBreaker;
+    private final CircuitBreaker exchangeRateApiBreaker;
+
+    /**
+     * Streams a countries array element by element instead of binding the whole payload:
+     * each element is read with the token parser and handed to {@code action} before the
+     * next one is parsed. Returns the number of elements seen.
+     */
+    @Override
+    public int streamCountries(Path body, Consumer<ExternalCountryDTO> action) {
+        try (JsonParser parser = objectMapper.createParser(body.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ServiceUnavailableException(
+                        "External data source unavailable",
+                        "Expected a JSON array of countries in " + body);
+            }
+            ObjectReader reader = objectMapper.readerFor(ExternalCountryDTO.class);
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                action.accept(reader.readValue(parser));
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new ServiceUnavailableException(
+                    "External data source unavailable",
+                    "Could not read the countries payload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Brings both cached upstream payloads up to date, running the two calls concurrently,
+     * each on its own virtual thread, so a refresh waits for the slower call rather than
+     * for both in turn. Both requests are conditional on the cached validators, and rates
+     * still inside the provider's declared validity window are not requested at all.
+     * The first failure cancels the other call, interrupting its blocked request, and
+     * surfaces as a {@link ServiceUnavailableException}. Neither call outlives this method.
+     * Each upstream sits behind its own {@link CircuitBreaker}; while one is open its call
+     * fails at once, though fresh cached rates are still served.
+     */
+    @Override
+    public ExternalDataDTO fetchAll() {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Timed<?>> completion = new ExecutorCompletionService<>(executor);
+            Future<Timed<?>> countries = completion.submit(() -> timed(this::fetchCountries));
+            Future<Timed<?>> rates = completion.submit(() -> timed(this::fetchRates));
+            try {
+                for (int pending = 2; pending > 0; pending--) {
+                    completion.take().get();
+                }
+            } catch (ExecutionException e) {
+                throw failure(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException(
+                        "External data source unavailable",
+                        "The upstream fetch was interrupted");
+            } finally {
+                // No-op for finished calls; interrupts whichever call is still running after a failure
+                countries.cancel(true);
+                rates.cancel(true);
+            }
 
+            Timed<?> countriesCall = countries.resultNow();
+            Timed<?> ratesCall = rates.resultNow();
+            log.info("Upstream::countries took {} ms, exchange rates took {} ms, {} ms wall time",
+                    countriesCall.elapsed().toMillis(),
+                    ratesCall.elapsed().toMillis(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+
+            UpstreamResponse countriesResponse = (UpstreamResponse) countriesCall.value();
+            Rates ratesResponse = (Rates) ratesCall.value();
+            return new ExternalDataDTO(
+                    countriesResponse.body(),
+                    ratesResponse.value(),
+                    ExternalDataDTO.fingerprint(countriesResponse.sha256(), ratesResponse.response().sha256()),
+                    countriesCall.elapsed(),
+                    ratesCall.elapsed());
+        }
+    }
+
+    /**
+     * Brings only the cached exchange rates up to date, with the same conditional request
+     * and validity window as {@link #fetchAll()}; the countries API is not called.
+     */
     @Override
-    public List<ExternalCountryDTO> getCountries() {
-        return countryApi.get()
-                .uri("/all?fields=name,capital,region,population,flag,currencies")
-                .retrieve()
-                .onStatus(HttpStatusCode::isError, (request, _) -> {
-                    throw new ServiceUnavailableException(
-                            "External data source unavailable",
-                            "Could not fetch data from " + request.getURI());
-                })
-                .onStatus(HttpStatusCode::is2xxSuccessful, (request, _) ->
-                        log.info("Successfully fetched countries from {}", request.getURI()))
-                .body(new ParameterizedTypeReference<List<ExternalCountryDTO>> () {});
+    public ExternalRatesDTO fetchExchangeRate() {
+        try {
+            Rates rates = fetchRates();
+            return new ExternalRatesDTO(rates.value(), rates.response().sha256());
+        } catch (RestClientException e) {
+            throw failure(e);
+        }
+    }
+
+    private UpstreamResponse fetchCountries() {
+        return countryApiBreaker.call(() -> fetchConditionally(countryApi, COUNTRIES_URI, COUNTRIES_CACHE));
+    }
+
+    private Rates fetchRates() {
+        Optional<UpstreamResponse> cached = upstreamCache.find(RATES_CACHE);
+        if (cached.isPresent() && cached.get().isFresh(Instant.now())) {
+            log.info("Upstream::exchange rates are current until {}, not requested", cached.get().nextUpdate());
+            return new Rates(cached.get(), readRates(cached.get()));
+        }
+
+        UpstreamResponse response = exchangeRateApiBreaker.call(() ->
+                fetchConditionally(exchangeRateApi, RATES_URI, RATES_CACHE));
+        ExternalExchangeRateDTO rates = readRates(response);
+        if (rates.timeNextUpdateUnix() != null) {
+            response = upstreamCache.expireAt(RATES_CACHE, response, Instant.ofEpochSecond(rates.timeNextUpdateUnix()));
+        }
+        return new Rates(response, rates);
     }
 
     @Override
-    public ExternalExchangeRateDTO getExchangeRate() {
-        return exchangeRateApi.get()
-                .uri("/USD")
-                .retrieve()
-                .onStatus(HttpStatusCode::is4xxClientError, (request, _) -> {
-                    throw new ServiceUnavailableException(
-                            "External data source unavailable",
-                            "Could not fetch data from " + request.getURI());
-                })
-                .onStatus(HttpStatusCode::is2xxSuccessful, (_, _) ->
-                        log.info("Successfully fetched the exchange rate"))
-                .body(ExternalExchangeRateDTO.class);
+    public List<UpstreamStatusDTO> getUpstreamStatus() {
+        return List.of(countryApiBreaker.status(), exchangeRateApiBreaker.status());
+    }
+
+    /**
+     * GETs {@code uri} with the cached entry's validators. A 304 returns the cached entry
+     * untouched; a 2xx body is streamed into the cache, replacing the entry.
+     */
+    private UpstreamResponse fetchConditionally(RestClient client, String uri, String cacheName) {
+        Optional<UpstreamResponse> cached = upstreamCache.find(cacheName);
+        return client.get()
+                .uri(uri)
+                .headers(headers -> cached.ifPresent(entry -> {
+                    if (entry.etag() != null) {
+                        headers.setIfNoneMatch(entry.etag());
+                    }
+                    if (entry.lastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified());
+                    }
+                }))
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cached.isPresent()) {
+                        log.info("Upstream::{} not modified", request.getURI());
+                        return cached.get();
+                    }
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        throw new ServiceUnavailableException(
+                                "External data source unavailable",
+                                "Could not fetch data from " + request.getURI());
+                    }
+                    log.info("Upstream::downloading {}", request.getURI());
+                    HttpHeaders headers = response.getHeaders();
+                    return upstreamCache.store(
+                            cacheName,
+                            response.getBody(),
+                            headers.getETag(),
+                            headers.getFirst(HttpHeaders.LAST_MODIFIED));
+                });
+    }
+
+    private ExternalExchangeRateDTO readRates(UpstreamResponse response) {
+        try {
+            return objectMapper.readValue(response.body().toFile(), ExternalExchangeRateDTO.class);
+        } catch (IOException e) {
+            throw new ServiceUnavailableException(
+                    "External data source unavailable",
+                    "Could not read the exchange rates payload: " + e.getMessage());
+        }
     }
+
+    private static <T> Timed<T> timed(Supplier<T> call) {
+        long start = System.nanoTime();
+        T value = call.get();
+        return new Timed<>(value, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static RuntimeException failure(Throwable cause) {
+        if (cause instanceof ServiceUnavailableException unavailable) {
+            return unavailable;
+        }
+        if (cause instanceof RestClientException) {
+            return new ServiceUnavailableException("External data source unavailable", cause.getMessage());
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private record Timed<T>(T value, Duration elapsed) { }
+
+    private record Rates(UpstreamResponse response, ExternalExchangeRateDTO value) { }
 }
@@ -0,0 +1,54 @@
+package com.rifushigi.nomisma.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized response body with its strong ETag and, when worthwhile, a gzip variant.
+ * The ETag is derived from the content alone, so a refresh that leaves a listing
+ * unchanged keeps answering {@code If-None-Match} with 304.
+ */
+public record CachedResponse(byte[] body, byte[] gzipBody, String etag) {
+
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    public static CachedResponse of(byte[] body, boolean gzip) {
+        byte[] compressed = gzip && body.length >= GZIP_MIN_BYTES ? gzip(body) : null;
+        return new CachedResponse(body, compressed, "\"" + contentHash(body) + "\"");
+    }
+
+    public boolean hasGzip() {
+        return gzipBody != null;
+    }
+
+    /**
+     * Gzip is a different representation, so it gets its own strong validator.
+     */
+    public String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    private static String contentHash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,96 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position for {@code GET /countries?limit=&cursor=}: the sort key
+ * value and id of the last row on the previous page. Resuming is a binary search,
+ * so a deep page costs the same as the first one.
+ */
+public record CountryCursor(CountrySortKey key, boolean descending, UUID id, String value) {
+
+    private static final String VERSION = "v1";
+    private static final Comparator<CountryResponseDTO> BY_ID =
+            Comparator.comparing(CountryResponseDTO::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public static CountryCursor after(CountryResponseDTO row, CountrySortKey.Order order) {
+        if (order == null) {
+            return new CountryCursor(null, false, row.id(), null);
+        }
+        Object value = order.key().valueOf(row);
+        return new CountryCursor(order.key(), order.descending(), row.id(),
+                value == null ? null : String.valueOf(value));
+    }
+
+    /**
+     * Ascending total order for a sort: the key with id as tiebreaker, or id alone.
+     */
+    public static Comparator<CountryResponseDTO> totalOrder(CountrySortKey.Order order) {
+        return order == null ? BY_ID : order.key().comparator(false).thenComparing(BY_ID);
+    }
+
+    public boolean matches(CountrySortKey.Order order) {
+        if (order == null) {
+            return key == null;
+        }
+        return key == order.key() && descending == order.descending();
+    }
+
+    public CountryResponseDTO probe() {
+        if (key == null) {
+            return CountrySortKey.NAME.probe(id, null);
+        }
+        return key.probe(id, value);
+    }
+
+    public String encode() {
+        String raw = String.join("|",
+                VERSION,
+                key == null ? "" : key.name(),
+                descending ? "d" : "a",
+                id == null ? "" : id.toString(),
+                value == null ? "-" : "=" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static CountryCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor is not valid base64");
+        }
+
+        // The value goes last because names may contain the separator
+        String[] parts = raw.split("\\|", 5);
+        if (parts.length != 5 || !VERSION.equals(parts[0]) || parts[4].isEmpty()) {
+            throw new IllegalArgumentException("Cursor is malformed");
+        }
+
+        CountrySortKey key;
+        try {
+            key = parts[1].isEmpty() ? null : CountrySortKey.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor references an unknown sort key");
+        }
+
+        String value = parts[4].charAt(0) == '=' ? parts[4].substring(1) : null;
+        try {
+            CountryCursor cursor = new CountryCursor(
+                    key, "d".equals(parts[2]), parts[3].isEmpty() ? null : UUID.fromString(parts[3]), value);
+            cursor.probe();
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException from a corrupted key value
+            throw new IllegalArgumentException("Cursor value is malformed");
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.entity.Country;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes over a snapshot's country list, built once per snapshot.
+ * <p>
+ * Every bucket (the whole table, one per region and one per currency) keeps its
+ * members in snapshot order plus one pre-sorted permutation per {@link CountrySortKey},
+ * so any filter and sort combination is answered by walking a single array.
+ * Countries are also keyed by normalized name with their validity precomputed.
+ * Ties within a sort key keep snapshot (id) order, which makes every ordering total.
+ */
+public final class CountryIndex {
+
+    private final List<CountryResponseDTO> countries;
+    private final Bucket all;
+    private final Map<String, Bucket> byRegion;
+    private final Map<String, Bucket> byCurrency;
+    private final Map<String, CountryLookup> byNameKey;
+
+    public CountryIndex(List<CountryResponseDTO> countries) {
+        this.countries = countries;
+
+        int size = countries.size();
+        int[] identity = new int[size];
+        Arrays.setAll(identity, i -> i);
+
+        EnumMap<CountrySortKey, int[]> orderings = new EnumMap<>(CountrySortKey.class);
+        for (CountrySortKey key : CountrySortKey.values()) {
+            orderings.put(key, sortedBy(key, identity));
+        }
+
+        this.all = new Bucket(bitsOf(identity, size), identity, orderings);
+        this.byRegion = buildBuckets(CountryResponseDTO::region, orderings);
+        this.byCurrency = buildBuckets(CountryResponseDTO::currencyCode, orderings);
+
+        Map<String, CountryLookup> names = new HashMap<>();
+        for (CountryResponseDTO country : countries) {
+            if (country.name() != null) {
+                names.put(Country.normalizeName(country.name()), CountryLookup.of(country));
+            }
+        }
+        this.byNameKey = Map.copyOf(names);
+    }
+
+    public CountryLookup findByName(String name) {
+        return name == null ? null : byNameKey.get(Country.normalizeName(name));
+    }
+
+    public List<CountryResponseDTO> query(String region, String currency, CountrySortKey.Order order) {
+        return page(region, currency, order, null, Integer.MAX_VALUE).rows();
+    }
+
+    /**
+     * Returns up to {@code limit} rows that come strictly after {@code after} in the
+     * requested order. The start position is found by binary search over the walked
+     * array, so the cost does not depend on how deep the cursor is.
+     */
+    public Page page(String region, String currency, CountrySortKey.Order order, CountryCursor after, int limit) {
+        Selection selection = select(region, currency, order);
+        if (selection == null) {
+            return Page.EMPTY;
+        }
+
+        int[] positions = selection.positions();
+        int start = after == null
+                ? 0
+                : startAfter(positions, after.probe(), CountryCursor.totalOrder(order), selection.descending());
+
+        List<CountryResponseDTO> rows = new ArrayList<>(Math.min(limit, selection.bound()));
+        for (int i = start; i < positions.length; i++) {
+            int position = selection.at(i);
+            if (selection.accepts(position)) {
+                if (rows.size() == limit) {
+                    return new Page(Collections.unmodifiableList(rows), true);
+                }
+                rows.add(countries.get(position));
+            }
+        }
+        return new Page(Collections.unmodifiableList(rows), false);
+    }
+
+    /**
+     * Visits matching rows in order without materializing a result list.
+     */
+    public void forEach(String region, String currency, CountrySortKey.Order order, Consumer<CountryResponseDTO> action) {
+        Selection selection = select(region, currency, order);
+        if (selection == null) {
+            return;
+        }
+        for (int i = 0; i < selection.positions().length; i++) {
+            int position = selection.at(i);
+            if (selection.accepts(position)) {
+                action.accept(countries.get(position));
+            }
+        }
+    }
+
+    public int count(String region, String currency) {
+        Selection selection = select(region, currency, null);
+        if (selection == null) {
+            return 0;
+        }
+        if (selection.filter() == null) {
+            return selection.positions().length;
+        }
+        int count = 0;
+        for (int position : selection.positions()) {
+            if (selection.filter().get(position)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Selection select(String region, String currency, CountrySortKey.Order order) {
+        Bucket regionBucket = all;
+        if (region != null && !region.isBlank()) {
+            regionBucket = byRegion.get(region.toLowerCase());
+        }
+        Bucket currencyBucket = all;
+        if (currency != null && !currency.isBlank()) {
+            currencyBucket = byCurrency.get(currency.toLowerCase());
+        }
+        if (regionBucket == null || currencyBucket == null) {
+            return null;
+        }
+
+        // Walk the smaller bucket and probe the other one's membership bits
+        Bucket walk = regionBucket.size() <= currencyBucket.size() ? regionBucket : currencyBucket;
+        Bucket probe = walk == regionBucket ? currencyBucket : regionBucket;
+
+        return new Selection(
+                order == null ? walk.byId() : walk.sorted().get(order.key()),
+                probe == all ? null : probe.members(),
+                order != null && order.descending(),
+                Math.min(walk.size(), probe.size()));
+    }
+
+    /**
+     * Maps a keyset position to the first walk index (0 = first row in walk direction)
+     * that lies strictly beyond it.
+     */
+    private int startAfter(int[] positions, CountryResponseDTO key, Comparator<CountryResponseDTO> order, boolean descending) {
+        if (descending) {
+            // Rows strictly below the key, walked from the top
+            return positions.length - lowerBound(positions, key, order);
+        }
+        return upperBound(positions, key, order);
+    }
+
+    private int lowerBound(int[] positions, CountryResponseDTO key, Comparator<CountryResponseDTO> order) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(countries.get(positions[mid]), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(int[] positions, CountryResponseDTO key, Comparator<CountryResponseDTO> order) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(countries.get(positions[mid]), key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Map<String, Bucket> buildBuckets(
+            Function<CountryResponseDTO, String> attribute,
+            EnumMap<CountrySortKey, int[]> orderings) {
+        int size = countries.size();
+        Map<String, BitSet> members = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String value = attribute.apply(countries.get(i));
+            if (value != null) {
+                members.computeIfAbsent(value.toLowerCase(), _ -> new BitSet(size)).set(i);
+            }
+        }
+
+        Map<String, Bucket> buckets = new HashMap<>();
+        members.forEach((value, bits) -> {
+            EnumMap<CountrySortKey, int[]> sorted = new EnumMap<>(CountrySortKey.class);
+            orderings.forEach((key, permutation) -> sorted.put(key, restrict(permutation, bits)));
+            buckets.put(value, new Bucket(bits, bits.stream().toArray(), sorted));
+        });
+        return Map.copyOf(buckets);
+    }
+
+    private int[] sortedBy(CountrySortKey key, int[] identity) {
+        return Arrays.stream(identity)
+                .boxed()
+                .sorted((a, b) -> key.comparator(false).compare(countries.get(a), countries.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static int[] restrict(int[] permutation, BitSet bits) {
+        int[] restricted = new int[bits.cardinality()];
+        int next = 0;
+        for (int position : permutation) {
+            if (bits.get(position)) {
+                restricted[next++] = position;
+            }
+        }
+        return restricted;
+    }
+
+    private static BitSet bitsOf(int[] positions, int size) {
+        BitSet bits = new BitSet(size);
+        for (int position : positions) {
+            bits.set(position);
+        }
+        return bits;
+    }
+
+    public record Page(List<CountryResponseDTO> rows, boolean hasMore) {
+        static final Page EMPTY = new Page(List.of(), false);
+    }
+
+    /**
+     * The array to walk for one request, the optional membership bits to probe and
+     * an upper bound on the number of matches.
+     */
+    private record Selection(int[] positions, BitSet filter, boolean descending, int bound) {
+        int at(int walkIndex) {
+            return positions[descending ? positions.length - 1 - walkIndex : walkIndex];
+        }
+
+        boolean accepts(int position) {
+            return filter == null || filter.get(position);
+        }
+    }
+
+    private record Bucket(BitSet members, int[] byId, EnumMap<CountrySortKey, int[]> sorted) {
+        int size() {
+            return byId.length;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.rifushigi.nomisma.dto.CountryFilterDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+ * A filtered, ordered view over one snapshot that is written straight to the
+ * response stream row by row, so no result list or body buffer is built.
+ */
+public final class CountryListing {
+
+    private static final int FLUSH_EVERY = 256;
+
+    private final CountrySnapshot snapshot;
+    private final CountryFilterDTO filters;
+    private final ObjectWriter writer;
+    private final int size;
+
+    CountryListing(CountrySnapshot snapshot, CountryFilterDTO filters, ObjectWriter writer) {
+        this.snapshot = snapshot;
+        this.filters = filters;
+        this.writer = writer;
+        this.size = snapshot.index().count(filters.region(), filters.currency());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Weak validator built from the snapshot's content digest and a SHA-256 of the
+     * normalized filter, so every instance serving the same data issues the same tag.
+     */
+    public String etag(String variant) {
+        byte[] key = CountryResponseCache.normalize(filters).getBytes(StandardCharsets.UTF_8);
+        String filterHash = HexFormat.of().formatHex(CountrySnapshot.sha256().digest(key), 0, 16);
+        return "W/\"" + snapshot.digest() + "-" + filterHash + "-" + variant + "\"";
+    }
+
+    public void writeJsonArray(OutputStream out) throws IOException {
+        try (SequenceWriter sequence = writer.writeValuesAsArray(out)) {
+            writeRows(sequence);
+        }
+    }
+
+    public void writeNdjson(OutputStream out) throws IOException {
+        try (SequenceWriter sequence = writer.withRootValueSeparator("\n").writeValues(out)) {
+            writeRows(sequence);
+        }
+        if (size > 0) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private void writeRows(SequenceWriter sequence) throws IOException {
+        int[] written = {0};
+        try {
+            snapshot.index().forEach(filters.region(), filters.currency(), CountrySortKey.parse(filters.sort()), row -> {
+                try {
+                    sequence.write(row);
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        sequence.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
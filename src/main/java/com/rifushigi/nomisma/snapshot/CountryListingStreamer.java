@@ -0,0 +1,44 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Opens streamed listings for NDJSON requests and for unpaged JSON listings too
+ * large to be worth buffering in {@link CountryResponseCache}.
+ */
+@Component
+public class CountryListingStreamer {
+
+    private final CountrySnapshotHolder snapshotHolder;
+    private final ObjectWriter writer;
+    private final int streamThreshold;
+
+    public CountryListingStreamer(
+            CountrySnapshotHolder snapshotHolder,
+            ObjectMapper objectMapper,
+            @Value("${nomisma.countries.stream-threshold:5000}") int streamThreshold) {
+        this.snapshotHolder = snapshotHolder;
+        // The servlet container owns the response stream
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.streamThreshold = streamThreshold;
+    }
+
+    public CountryListing open(CountryFilterDTO filters) {
+        return new CountryListing(snapshotHolder.get(), filters, writer);
+    }
+
+    public Optional<CountryListing> openIfLarge(CountryFilterDTO filters) {
+        if (filters.isPaged()) {
+            return Optional.empty();
+        }
+        CountryListing listing = open(filters);
+        return listing.size() > streamThreshold ? Optional.of(listing) : Optional.empty();
+    }
+}
@@ -0,0 +1,36 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A country together with its missing-field report, computed once when the
+ * snapshot is built rather than on every {@code GET /countries/{name}}.
+ */
+public record CountryLookup(CountryResponseDTO country, Map<String, String> invalidFields) {
+
+    public static CountryLookup of(CountryResponseDTO country) {
+        Map<String, String> invalidFields = new HashMap<>();
+
+        if (country.population() == null) {
+            invalidFields.put("population", "Field 'population' is missing");
+        }
+        if (country.currencyCode() == null || country.currencyCode().trim().isEmpty()) {
+            invalidFields.put("currency_code", "Field 'currency_code' is missing or empty");
+        }
+        if (country.exchangeRate() == null) {
+            invalidFields.put("exchange_rate", "Field 'exchange_rate' is missing");
+        }
+        if (country.estimatedGdp() == null) {
+            invalidFields.put("estimated_gdp", "Field 'estimated_gdp' is missing");
+        }
+
+        return new CountryLookup(country, Map.copyOf(invalidFields));
+    }
+
+    public boolean isValid() {
+        return invalidFields.isEmpty();
+    }
+}
@@ -0,0 +1,103 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the serialized JSON of {@code GET /countries} per normalized filter.
+ * Entries belong to one snapshot version; publishing a new snapshot (refresh or
+ * delete) starts an empty generation, so stale bodies are never served.
+ * Pages after the first are serialized per request and not cached: every cursor is a
+ * distinct key, and a generation that has filled up stops taking new entries, so
+ * cursor pages would crowd out the listings most requests ask for.
+ */
+@Component
+public class CountryResponseCache {
+
+    private final CountrySnapshotHolder snapshotHolder;
+    private final ObjectWriter writer;
+    private final boolean gzip;
+    private final int maxEntries;
+    private final AtomicReference<Generation> generation = new AtomicReference<>(new Generation(-1));
+
+    public CountryResponseCache(
+            CountrySnapshotHolder snapshotHolder,
+            ObjectMapper objectMapper,
+            @Value("${nomisma.countries.response-cache.gzip:true}") boolean gzip,
+            @Value("${nomisma.countries.response-cache.max-entries:256}") int maxEntries) {
+        this.snapshotHolder = snapshotHolder;
+        this.writer = objectMapper.writer();
+        this.gzip = gzip;
+        this.maxEntries = maxEntries;
+    }
+
+    public CachedResponse get(CountryFilterDTO filters) {
+        CountrySnapshot snapshot = snapshotHolder.get();
+        if (filters.cursor() != null && !filters.cursor().isBlank()) {
+            return CachedResponse.of(serialize(snapshot.page(filters)), gzip);
+        }
+        Generation current = generationFor(snapshot.version());
+        String key = normalize(filters);
+
+        CachedResponse cached = current.entries().get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Object payload = filters.isPaged() ? snapshot.page(filters) : snapshot.query(filters);
+        CachedResponse fresh = CachedResponse.of(serialize(payload), gzip);
+        // Arbitrary filter values could otherwise grow the map without bound
+        if (current.version() == snapshot.version() && current.entries().size() < maxEntries) {
+            CachedResponse raced = current.entries().putIfAbsent(key, fresh);
+            return raced != null ? raced : fresh;
+        }
+        return fresh;
+    }
+
+    private Generation generationFor(long version) {
+        while (true) {
+            Generation current = generation.get();
+            if (current.version() >= version) {
+                return current;
+            }
+            Generation next = new Generation(version);
+            if (generation.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize country listing", e);
+        }
+    }
+
+    static String normalize(CountryFilterDTO filters) {
+        CountrySortKey.Order order = CountrySortKey.parse(filters.sort());
+        return normalizeValue(filters.region())
+                + '|' + normalizeValue(filters.currency())
+                + '|' + (order == null ? "" : order.key() + (order.descending() ? ":desc" : ":asc"))
+                + (filters.isPaged() ? "|" + filters.limit() + '|' + filters.cursor() : "");
+    }
+
+    private static String normalizeValue(String value) {
+        return value == null || value.isBlank() ? "" : value.toLowerCase();
+    }
+
+    private record Generation(long version, Map<String, CachedResponse> entries) {
+        Generation(long version) {
+            this(version, new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.entity.Country;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped NDJSON copy of the country table that lets a new instance seed itself without
+ * calling the upstream APIs. The first line is a {@link Header} carrying the format
+ * version; every following line is one {@link CountryResponseDTO}. The file written by
+ * the last successful refresh wins over a bundled one. No seed ships with the application;
+ * {@code nomisma.seed.bundled} names one only when a deployment provides it.
+ */
+@Slf4j
+@Component
+public class CountrySeedFile {
+
+    static final String FORMAT = "nomisma-countries";
+    static final int VERSION = 1;
+
+    private final Path file;
+    private final Resource bundled;
+    private final ObjectReader headerReader;
+    private final ObjectReader countryReader;
+    private final ObjectWriter writer;
+
+    public CountrySeedFile(
+            ObjectMapper objectMapper,
+            ResourceLoader resourceLoader,
+            @Value("${nomisma.seed.file:cache/countries-seed.ndjson.gz}") String file,
+            @Value("${nomisma.seed.bundled:}") String bundled) {
+        this.file = Path.of(file);
+        this.bundled = bundled.isBlank() ? null : resourceLoader.getResource(bundled);
+        if (this.bundled != null && !this.bundled.exists()) {
+            log.warn("Seed::bundled seed {} does not exist", bundled);
+        }
+        this.headerReader = objectMapper.readerFor(Header.class);
+        this.countryReader = objectMapper.readerFor(CountryResponseDTO.class);
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(file);
+    }
+
+    /**
+     * The seeds available to load, newest first: the file written by the last refresh,
+     * then the bundled one, if configured.
+     */
+    public List<Resource> sources() {
+        List<Resource> sources = new ArrayList<>(2);
+        if (exists()) {
+            sources.add(new FileSystemResource(file));
+        }
+        if (bundled != null && bundled.exists()) {
+            sources.add(bundled);
+        }
+        return sources;
+    }
+
+    /**
+     * Reads {@code source} and hands its countries to {@code chunkConsumer} in lists of at
+     * most {@code chunkSize}. A seed that cannot be read or parsed throws part way through,
+     * after earlier chunks were handed over, so the caller should consume them in a
+     * transaction that the failure rolls back.
+     *
+     * @throws UncheckedIOException if the seed cannot be read or a line is not valid JSON
+     * @throws IllegalStateException if the seed is not in a supported format
+     */
+    public Header load(Resource source, int chunkSize, Consumer<List<Country>> chunkConsumer) {
+        try (InputStream in = source.getInputStream()) {
+            return read(in, source.getDescription(), chunkSize, chunkConsumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + source.getDescription(), e);
+        }
+    }
+
+    /**
+     * Replaces the seed file with the contents of {@code snapshot}. The file is written
+     * next to its final location and moved into place, so a crash never leaves a
+     * truncated seed behind.
+     */
+    public void write(CountrySnapshot snapshot) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "countries-seed", ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024);
+                 Writer lines = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                writer.writeValue(lines, new Header(FORMAT, VERSION, snapshot.version(), Instant.now(), snapshot.size()));
+                lines.write('\n');
+                for (CountryResponseDTO country : snapshot.countries()) {
+                    writer.writeValue(lines, country);
+                    lines.write('\n');
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Seed::wrote {} countries to {}", snapshot.size(), file);
+    }
+
+    private Header read(InputStream in, String source, int chunkSize, Consumer<List<Country>> chunkConsumer)
+            throws IOException {
+        BufferedReader lines = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(in, 64 * 1024), StandardCharsets.UTF_8));
+        String first = lines.readLine();
+        Header header = first == null ? null : headerReader.readValue(first);
+        if (header == null || !FORMAT.equals(header.format()) || header.version() != VERSION) {
+            throw new IllegalStateException("unsupported seed format in " + source);
+        }
+
+        List<Country> chunk = new ArrayList<>(chunkSize);
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(toCountry(countryReader.readValue(line)));
+            if (chunk.size() == chunkSize) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+        log.info("Seed::read {} countries from {}", header.count(), source);
+        return header;
+    }
+
+    private static Country toCountry(CountryResponseDTO dto) {
+        Country country = new Country();
+        country.setId(dto.id());
+        country.setName(dto.name());
+        country.setCapital(dto.capital());
+        country.setRegion(dto.region());
+        country.setPopulation(dto.population());
+        country.setCurrencyCode(dto.currencyCode());
+        country.setExchangeRate(dto.exchangeRate());
+        country.setEstimatedGdp(dto.estimatedGdp());
+        country.setFlagUrl(dto.flagUrl());
+        country.setLastRefreshedAt(dto.lastRefreshedAt());
+        return country;
+    }
+
+    public record Header(String format, int version, long snapshotVersion, Instant writtenAt, int count) { }
+}
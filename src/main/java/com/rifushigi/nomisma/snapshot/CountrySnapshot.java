@@ -0,0 +1,123 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import com.rifushigi.nomisma.dto.CountryPageResponseDTO;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.entity.Country;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Immutable, versioned read model of the country table. A new instance is built
+ * after every refresh or delete and swapped in by {@link CountrySnapshotHolder},
+ * together with the {@link CountryIndex} that answers filter and sort queries.
+ * The version is local to this process; {@code digest} is a SHA-256 of every row,
+ * so two instances holding the same data agree on it.
+ */
+public record CountrySnapshot(
+        long version,
+        Instant builtAt,
+        List<CountryResponseDTO> countries,
+        CountryIndex index,
+        String digest
+) {
+
+    private static final char SEPARATOR = '\u001f';
+    private static final char NULL = '\u0000';
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static CountrySnapshot of(long version, List<CountryResponseDTO> countries) {
+        List<CountryResponseDTO> ordered = countries.stream()
+                .sorted(Comparator.comparing(CountryResponseDTO::id, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        return new CountrySnapshot(version, Instant.now(), ordered, new CountryIndex(ordered), digest(ordered));
+    }
+
+    public int size() {
+        return countries.size();
+    }
+
+    public List<CountryResponseDTO> query(CountryFilterDTO filters) {
+        return index.query(filters.region(), filters.currency(), CountrySortKey.parse(filters.sort()));
+    }
+
+    /**
+     * Keyset page for {@code limit}/{@code cursor} requests.
+     *
+     * @throws IllegalArgumentException for an out-of-range limit or a cursor that is
+     *                                  malformed or belongs to a different sort
+     */
+    public CountryPageResponseDTO page(CountryFilterDTO filters) {
+        int limit = filters.limit() == null ? DEFAULT_PAGE_SIZE : filters.limit();
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        CountrySortKey.Order order = CountrySortKey.parse(filters.sort());
+        CountryCursor after = null;
+        if (filters.cursor() != null && !filters.cursor().isBlank()) {
+            after = CountryCursor.decode(filters.cursor());
+            if (!after.matches(order)) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+        }
+
+        CountryIndex.Page page = index.page(filters.region(), filters.currency(), order, after, limit);
+        String nextCursor = page.hasMore()
+                ? CountryCursor.after(page.rows().getLast(), order).encode()
+                : null;
+        return new CountryPageResponseDTO(page.rows(), nextCursor);
+    }
+
+    /**
+     * Returns a copy of this snapshot without the country whose normalized name matches {@code name}.
+     */
+    public CountrySnapshot without(String name, long newVersion) {
+        String nameKey = Country.normalizeName(name);
+        List<CountryResponseDTO> remaining = countries.stream()
+                .filter(c -> !nameKey.equals(Country.normalizeName(c.name())))
+                .toList();
+        return new CountrySnapshot(newVersion, Instant.now(), remaining, new CountryIndex(remaining), digest(remaining));
+    }
+
+    // Every field in id order; BigDecimal.toString keeps the scale, which the JSON shows
+    private static String digest(List<CountryResponseDTO> countries) {
+        MessageDigest sha256 = sha256();
+        StringBuilder row = new StringBuilder(256);
+        for (CountryResponseDTO country : countries) {
+            row.setLength(0);
+            append(row, country.id());
+            append(row, country.name());
+            append(row, country.capital());
+            append(row, country.region());
+            append(row, country.population());
+            append(row, country.currencyCode());
+            append(row, country.exchangeRate());
+            append(row, country.estimatedGdp());
+            append(row, country.flagUrl());
+            append(row, country.lastRefreshedAt());
+            sha256.update(row.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(sha256.digest(), 0, 16);
+    }
+
+    private static void append(StringBuilder row, Object value) {
+        row.append(value == null ? String.valueOf(NULL) : value.toString()).append(SEPARATOR);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
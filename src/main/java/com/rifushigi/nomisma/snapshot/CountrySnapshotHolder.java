@@ -0,0 +1,103 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.repository.CountryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Holds the current {@link CountrySnapshot}. Reads are a single volatile load;
+ * writers are serialized and publish a fresh snapshot with a higher version.
+ */
+@Slf4j
+@Component
+public class CountrySnapshotHolder {
+
+    private final CountryRepository countryRepository;
+    private final TransactionTemplate readOnly;
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile CountrySnapshot current;
+
+    public CountrySnapshotHolder(
+            CountryRepository countryRepository,
+            PlatformTransactionManager transactionManager) {
+        this.countryRepository = countryRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Rebuilds also run from afterCommit callbacks, where REQUIRED would join the finished transaction
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public CountrySnapshot get() {
+        CountrySnapshot snapshot = current;
+        return snapshot != null ? snapshot : loadIfAbsent();
+    }
+
+    /**
+     * The published snapshot, without loading one when none exists yet.
+     */
+    public Optional<CountrySnapshot> peek() {
+        return Optional.ofNullable(current);
+    }
+
+    public synchronized void rebuild() {
+        List<CountryResponseDTO> countries = readOnly.execute(_ -> {
+            try (Stream<CountryResponseDTO> rows = countryRepository.streamAllViews()) {
+                return rows.toList();
+            }
+        });
+        publish(CountrySnapshot.of(versions.incrementAndGet(), countries));
+    }
+
+    public synchronized void remove(String name) {
+        publish(get().without(name, versions.incrementAndGet()));
+    }
+
+    /**
+     * Rebuilds once the surrounding transaction commits, so readers never see
+     * rows that could still be rolled back.
+     */
+    public void rebuildAfterCommit() {
+        afterCommit(this::rebuild);
+    }
+
+    public void removeAfterCommit(String name) {
+        afterCommit(() -> remove(name));
+    }
+
+    private synchronized CountrySnapshot loadIfAbsent() {
+        if (current == null) {
+            rebuild();
+        }
+        return current;
+    }
+
+    private void publish(CountrySnapshot snapshot) {
+        current = snapshot;
+        log.info("Snapshot::published version {} with {} countries", snapshot.version(), snapshot.size());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
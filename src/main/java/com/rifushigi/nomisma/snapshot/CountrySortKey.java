@@ -0,0 +1,96 @@
+package com.rifushigi.nomisma.snapshot;
+
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Sort keys accepted by {@code GET /countries?sort=<key>_<asc|desc>}.
+ * Nulls order first ascending and last descending, the same as MySQL.
+ */
+public enum CountrySortKey {
+    NAME(CountryResponseDTO::name, String.CASE_INSENSITIVE_ORDER),
+    POPULATION(CountryResponseDTO::population, Comparator.<Long>naturalOrder()),
+    CURRENCY_CODE(CountryResponseDTO::currencyCode, String.CASE_INSENSITIVE_ORDER),
+    EXCHANGE_RATE(CountryResponseDTO::exchangeRate, Comparator.naturalOrder()),
+    ESTIMATED_GDP(CountryResponseDTO::estimatedGdp, Comparator.naturalOrder());
+
+    private static final Map<String, CountrySortKey> BY_API_NAME = Map.of(
+            "name", NAME,
+            "population", POPULATION,
+            "currency_code", CURRENCY_CODE,
+            "exchange_rate", EXCHANGE_RATE,
+            "estimated_gdp", ESTIMATED_GDP,
+            "gdp", ESTIMATED_GDP
+    );
+
+    private final Function<CountryResponseDTO, ?> extractor;
+    private final Comparator<CountryResponseDTO> ascending;
+
+    <T> CountrySortKey(Function<CountryResponseDTO, T> extractor, Comparator<? super T> order) {
+        this.extractor = extractor;
+        this.ascending = Comparator.comparing(extractor, Comparator.nullsFirst(order));
+    }
+
+    public Object valueOf(CountryResponseDTO country) {
+        return extractor.apply(country);
+    }
+
+    /**
+     * Builds a row carrying only {@code id} and this key's value, for keyset
+     * comparisons against real rows. {@code value} is the {@link String#valueOf}
+     * form of the key, or {@code null}.
+     */
+    public CountryResponseDTO probe(UUID id, String value) {
+        return switch (this) {
+            case NAME -> new CountryResponseDTO(id, value, null, null, null, null, null, null, null, null);
+            case POPULATION -> new CountryResponseDTO(id, null, null, null,
+                    value == null ? null : Long.valueOf(value), null, null, null, null, null);
+            case CURRENCY_CODE -> new CountryResponseDTO(id, null, null, null, null, value, null, null, null, null);
+            case EXCHANGE_RATE -> new CountryResponseDTO(id, null, null, null, null, null,
+                    value == null ? null : new BigDecimal(value), null, null, null);
+            case ESTIMATED_GDP -> new CountryResponseDTO(id, null, null, null, null, null, null,
+                    value == null ? null : new BigDecimal(value), null, null);
+        };
+    }
+
+    public Comparator<CountryResponseDTO> comparator(boolean descending) {
+        return descending ? ascending.reversed() : ascending;
+    }
+
+    /**
+     * Parses {@code <field>_<asc|desc>}. Splits on the last underscore so multi-word
+     * keys such as {@code estimated_gdp_desc} resolve. Returns {@code null} when the
+     * value is blank or names an unknown field, meaning "default order".
+     */
+    public static Order parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+
+        int separator = sort.lastIndexOf('_');
+        if (separator <= 0) {
+            return null;
+        }
+
+        CountrySortKey key = fromApiName(sort.substring(0, separator));
+        if (key == null) {
+            return null;
+        }
+        return new Order(key, sort.substring(separator + 1).equalsIgnoreCase("desc"));
+    }
+
+    /**
+     * Resolves an API field name such as {@code estimated_gdp} or {@code gdp}.
+     * Returns {@code null} for unknown fields so callers fall back to the default order.
+     */
+    public static CountrySortKey fromApiName(String apiName) {
+        return apiName == null ? null : BY_API_NAME.get(apiName.toLowerCase());
+    }
+
+    public record Order(CountrySortKey key, boolean descending) { }
+}
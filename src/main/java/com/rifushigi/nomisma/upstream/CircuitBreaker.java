@@ -0,0 +1,117 @@
+package com.rifushigi.nomisma.upstream;
+
+import com.rifushigi.nomisma.dto.UpstreamStatusDTO;
+import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls to one upstream. After {@code failureThreshold} consecutive failures
+ * the circuit opens and calls fail fast with a {@link ServiceUnavailableException}
+ * without touching the network. Once {@code openDuration} has passed, a single call is
+ * let through as a probe: success closes the circuit, failure opens it again.
+ * <p>
+ * Only upstream failures count: {@link ServiceUnavailableException},
+ * {@link RestClientException}, but not a call cut short because its thread was
+ * interrupted. State changes are synchronized; the guarded call runs outside the lock.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant retryAt;
+    private boolean probing;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        T result;
+        try {
+            result = call.get();
+        } catch (ServiceUnavailableException | RestClientException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                release();
+            } else {
+                onFailure();
+            }
+            throw e;
+        } catch (RuntimeException | Error e) {
+            release();
+            throw e;
+        }
+        onSuccess();
+        return result;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized UpstreamStatusDTO status() {
+        return new UpstreamStatusDTO(
+                name,
+                state.name(),
+                consecutiveFailures,
+                retryAt != null ? retryAt.toString() : null);
+    }
+
+    private synchronized void acquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(retryAt)) {
+                throw new ServiceUnavailableException(
+                        "External data source unavailable",
+                        "Calls to " + name + " are suspended until " + retryAt
+                                + " after " + consecutiveFailures + " consecutive failures");
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                throw new ServiceUnavailableException(
+                        "External data source unavailable",
+                        "A probe call to " + name + " is already in flight");
+            }
+            probing = true;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        retryAt = null;
+        probing = false;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        probing = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            retryAt = clock.instant().plus(openDuration);
+        }
+    }
+
+    private synchronized void release() {
+        probing = false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.rifushigi.nomisma.upstream;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * One cached upstream response: the raw body on disk, the validators it was served
+ * with, the SHA-256 of the body and, when the provider declares one, the instant its
+ * next update is due.
+ */
+public record UpstreamResponse(
+        Path body,
+        String etag,
+        String lastModified,
+        String sha256,
+        Instant nextUpdate) {
+
+    /**
+     * True while the provider has promised not to publish anything newer.
+     */
+    public boolean isFresh(Instant now) {
+        return nextUpdate != null && now.isBefore(nextUpdate);
+    }
+
+    UpstreamResponse withNextUpdate(Instant nextUpdate) {
+        return new UpstreamResponse(body, etag, lastModified, sha256, nextUpdate);
+    }
+}
@@ -0,0 +1,152 @@
+package com.rifushigi.nomisma.upstream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Raw upstream responses kept on disk, one body file and one properties file per
+ * source, so later fetches can be made conditional and skipped entirely when the
+ * provider says nothing newer exists yet. Files are replaced by atomic moves, so a
+ * reader sees either the previous entry or the new one, never a partial body.
+ */
+@Slf4j
+@Component
+public class UpstreamResponseCache {
+
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "last-modified";
+    private static final String SHA256 = "sha256";
+    private static final String NEXT_UPDATE = "next-update";
+
+    private final Path directory;
+
+    public UpstreamResponseCache(@Value("${nomisma.upstream.cache-dir:cache/upstream}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    public Optional<UpstreamResponse> find(String name) {
+        Path meta = metaFile(name);
+        Path body = bodyFile(name);
+        if (!Files.isRegularFile(meta) || !Files.isRegularFile(body)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            log.warn("Upstream cache::ignoring unreadable entry {}: {}", name, e.getMessage());
+            return Optional.empty();
+        }
+        String nextUpdate = properties.getProperty(NEXT_UPDATE);
+        return Optional.of(new UpstreamResponse(
+                body,
+                properties.getProperty(ETAG),
+                properties.getProperty(LAST_MODIFIED),
+                properties.getProperty(SHA256),
+                nextUpdate == null ? null : Instant.parse(nextUpdate)));
+    }
+
+    /**
+     * Copies {@code body} into the cache while hashing it and replaces any previous entry.
+     * Memory use does not depend on the body size.
+     */
+    public UpstreamResponse store(String name, InputStream body, String etag, String lastModified) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, name, ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                body.transferTo(out);
+            }
+            UpstreamResponse entry = new UpstreamResponse(
+                    bodyFile(name), etag, lastModified, HexFormat.of().formatHex(digest.digest()), null);
+            move(temp, entry.body());
+            writeMeta(name, entry);
+            return entry;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Records when the provider's next update is due; until then the entry is served
+     * without asking the provider.
+     */
+    public UpstreamResponse expireAt(String name, UpstreamResponse entry, Instant nextUpdate) {
+        UpstreamResponse updated = entry.withNextUpdate(nextUpdate);
+        try {
+            writeMeta(name, updated);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return updated;
+    }
+
+    private void writeMeta(String name, UpstreamResponse entry) throws IOException {
+        Properties properties = new Properties();
+        setIfPresent(properties, ETAG, entry.etag());
+        setIfPresent(properties, LAST_MODIFIED, entry.lastModified());
+        setIfPresent(properties, SHA256, entry.sha256());
+        setIfPresent(properties, NEXT_UPDATE, entry.nextUpdate() == null ? null : entry.nextUpdate().toString());
+
+        Path temp = Files.createTempFile(directory, name, ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            move(temp, metaFile(name));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void setIfPresent(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path bodyFile(String name) {
+        return directory.resolve(name + ".json");
+    }
+
+    private Path metaFile(String name) {
+        return directory.resolve(name + ".properties");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package db.migration;
+
+import com.rifushigi.nomisma.entity.Country;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds the unique {@code name_key} lookup column to {@code country}. Keys are folded
+ * with {@link Country#normalizeName}, the rule the application looks rows up by,
+ * rather than SQL {@code LOWER}, whose folding depends on the database and its
+ * collation. Rows whose names fold to the same key, which overlapping refreshes could
+ * leave behind, are collapsed to the one refreshed most recently before the unique
+ * constraint is added. On MySQL the column uses a binary collation, so the index
+ * compares keys exactly as Java folded them.
+ */
+public class V3__CountryNameKey extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute(mysql
+                    ? "ALTER TABLE country ADD name_key VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL"
+                    : "ALTER TABLE country ADD name_key VARCHAR(255) NULL");
+        }
+
+        Map<String, Row> newest = new HashMap<>();
+        List<String> duplicates = new ArrayList<>();
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery("SELECT id, name, last_refreshed_at FROM country")) {
+            while (rows.next()) {
+                String key = Country.normalizeName(rows.getString(2));
+                Row row = new Row(rows.getString(1), rows.getTimestamp(3));
+                Row kept = newest.get(key);
+                if (kept == null || row.isNewerThan(kept)) {
+                    newest.put(key, row);
+                    if (kept != null) {
+                        duplicates.add(kept.id());
+                    }
+                } else {
+                    duplicates.add(row.id());
+                }
+            }
+        }
+
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM country WHERE id = ?")) {
+            int pending = 0;
+            for (String id : duplicates) {
+                delete.setString(1, id);
+                delete.addBatch();
+                if (++pending % BATCH_SIZE == 0) {
+                    delete.executeBatch();
+                }
+            }
+            delete.executeBatch();
+        }
+
+        try (PreparedStatement update = connection.prepareStatement("UPDATE country SET name_key = ? WHERE id = ?")) {
+            int pending = 0;
+            for (Map.Entry<String, Row> entry : newest.entrySet()) {
+                update.setString(1, entry.getKey());
+                update.setString(2, entry.getValue().id());
+                update.addBatch();
+                if (++pending % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute(mysql
+                    ? "ALTER TABLE country MODIFY name_key VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL"
+                    : "ALTER TABLE country MODIFY name_key VARCHAR(255) NOT NULL");
+            ddl.execute("ALTER TABLE country ADD CONSTRAINT uc_country_name_key UNIQUE (name_key)");
+        }
+    }
+
+    private record Row(String id, Timestamp lastRefreshedAt) {
+        // A row that was never refreshed loses to any that was
+        boolean isNewerThan(Row other) {
+            return lastRefreshedAt != null
+                    && (other.lastRefreshedAt == null || lastRefreshedAt.after(other.lastRefreshedAt));
+        }
+    }
+}
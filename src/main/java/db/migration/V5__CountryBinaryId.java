@@ -0,0 +1,72 @@
+package db.migration;
+
+import com.rifushigi.nomisma.entity.TimeOrderedUuid;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Replaces the {@code VARCHAR(255)} UUID primary key of {@code country} with a
+ * {@code BINARY(16)} key. Existing ids keep their value, only the encoding changes;
+ * new rows get time-ordered ids so inserts append to the clustered index.
+ * Written in Java because MySQL and H2 share no function to decode a UUID string.
+ */
+public class V5__CountryBinaryId extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("ALTER TABLE country ADD id_bin BINARY(16) NULL");
+        }
+
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery("SELECT id FROM country");
+             PreparedStatement update = connection.prepareStatement("UPDATE country SET id_bin = ? WHERE id = ?")) {
+            int pending = 0;
+            while (rows.next()) {
+                String id = rows.getString(1);
+                update.setBytes(1, toBytes(parse(id)));
+                update.setString(2, id);
+                update.addBatch();
+                if (++pending % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("ALTER TABLE country DROP PRIMARY KEY");
+            ddl.execute("ALTER TABLE country DROP COLUMN id");
+            ddl.execute("ALTER TABLE country CHANGE COLUMN id_bin id BINARY(16) NOT NULL");
+            // H2 renames and retypes on CHANGE COLUMN but keeps the column nullable
+            ddl.execute("ALTER TABLE country MODIFY id BINARY(16) NOT NULL");
+            ddl.execute("ALTER TABLE country ADD CONSTRAINT pk_country PRIMARY KEY (id)");
+        }
+    }
+
+    private static UUID parse(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return TimeOrderedUuid.generate();
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,38 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Adds {@code country_staging}, the table a refresh loads into before it is swapped with
+ * {@code country}. The two trade names on every swap, so they must keep identical
+ * definitions: a later migration that changes {@code country} has to change
+ * {@code country_staging} the same way. Written in Java because H2, which the tests run
+ * on, has no {@code CREATE TABLE ... LIKE}.
+ */
+public class V7__CountryStagingTable extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+
+        try (Statement ddl = connection.createStatement()) {
+            if (mysql) {
+                ddl.execute("CREATE TABLE country_staging LIKE country");
+                return;
+            }
+            ddl.execute("CREATE TABLE country_staging AS SELECT * FROM country WITH NO DATA");
+            // Only the column types are copied; restore the NOT NULL constraints
+            ddl.execute("ALTER TABLE country_staging ALTER COLUMN id SET NOT NULL");
+            ddl.execute("ALTER TABLE country_staging ALTER COLUMN name SET NOT NULL");
+            ddl.execute("ALTER TABLE country_staging ALTER COLUMN name_key SET NOT NULL");
+            ddl.execute("ALTER TABLE country_staging ALTER COLUMN population SET NOT NULL");
+            ddl.execute("ALTER TABLE country_staging ADD CONSTRAINT pk_country_staging PRIMARY KEY (id)");
+            ddl.execute("ALTER TABLE country_staging ADD CONSTRAINT uc_country_staging_name_key UNIQUE (name_key)");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+UPDATE country
+SET currency_code = NULL
+WHERE CHAR_LENGTH(currency_code) <> 3;
+
+ALTER TABLE country
+    MODIFY currency_code CHAR(3) NULL;
+
+ALTER TABLE country
+    MODIFY exchange_rate DECIMAL(20, 6) NULL;
+
+CREATE INDEX idx_country_region ON country (region);
+
+CREATE INDEX idx_country_currency_code ON country (currency_code);
+
+CREATE INDEX idx_country_estimated_gdp ON country (estimated_gdp);
+
+CREATE INDEX idx_country_population ON country (population);
@@ -0,0 +1,2 @@
+ALTER TABLE country
+    ADD content_hash BINARY(16) NULL;
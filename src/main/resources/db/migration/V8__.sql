@@ -0,0 +1,7 @@
+CREATE TABLE exchange_rate_history
+(
+    currency_code CHAR(3)        NOT NULL,
+    observed_at   datetime       NOT NULL,
+    rate          DECIMAL(20, 6) NOT NULL,
+    CONSTRAINT pk_exchange_rate_history PRIMARY KEY (currency_code, observed_at)
+);
@@ -0,0 +1,110 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.repository.CountryBulkRepository;
+import com.rifushigi.nomisma.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared setup for tests that write the country table through {@link CountryBulkRepository}:
+ * an H2 database in MySQL mode migrated by Flyway, no test-managed transaction so every
+ * write commits as it would in a refresh, and an empty table before each test.
+ */
+@DataJpaTest
+@Import(CountryBulkRepository.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:countrytable;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class AbstractCountryTableTest {
+
+    static final int CURRENCIES = 50;
+
+    @Autowired
+    CountryRepository countryRepository;
+
+    @Autowired
+    CountryBulkRepository countryBulkRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+
+    @BeforeEach
+    void clearCountries() {
+        countryRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM country_staging");
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * {@code count} countries named "Country 0" onwards. {@code round} shifts population and
+     * GDP, so a different round changes every fingerprint; country {@code i} pays in
+     * currency {@code C<i % 50>} at {@code (i % 50 + 1) * rateMultiplier}, matching
+     * {@link #rates(int)}.
+     */
+    static List<Country> countries(int count, int round, int rateMultiplier) {
+        Instant now = Instant.now();
+        List<Country> countries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Country country = new Country();
+            country.setName("Country " + i);
+            country.setCapital("Capital " + i);
+            country.setRegion(i % 2 == 0 ? "Africa" : "Europe");
+            country.setPopulation(1_000L * i + round);
+            country.setCurrencyCode(currency(i));
+            country.setExchangeRate(BigDecimal.valueOf((long) (i % CURRENCIES + 1) * rateMultiplier).setScale(6));
+            country.setEstimatedGdp(BigDecimal.valueOf(10_000L * i + round));
+            country.setFlagUrl("https://flagcdn.com/" + i + ".svg");
+            country.setLastRefreshedAt(now);
+            countries.add(country);
+        }
+        return countries;
+    }
+
+    /**
+     * USD rates of all {@value #CURRENCIES} currencies, {@code C<c>} at {@code (c + 1) * multiplier}.
+     */
+    static Map<String, BigDecimal> rates(int multiplier) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (int c = 0; c < CURRENCIES; c++) {
+            rates.put(currency(c), BigDecimal.valueOf((long) (c + 1) * multiplier).setScale(6));
+        }
+        return rates;
+    }
+
+    static String currency(int index) {
+        return String.format("C%02d", index % CURRENCIES);
+    }
+
+    static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return System.nanoTime() - start;
+    }
+}
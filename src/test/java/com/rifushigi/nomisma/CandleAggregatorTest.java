@@ -0,0 +1,57 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.ExchangeRateCandleDTO;
+import com.rifushigi.nomisma.rates.CandleAggregator;
+import com.rifushigi.nomisma.rates.RateInterval;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CandleAggregatorTest {
+
+    private static final Instant DAY_ONE = Instant.parse("2025-10-22T00:00:00Z");
+
+    @Test
+    void foldsHourlyPointsIntoDailyCandles() {
+        CandleAggregator aggregator = new CandleAggregator(RateInterval.DAY);
+        double[] dayOne = {1600, 1620, 1590, 1610};
+        double[] dayTwo = {1612, 1605};
+        for (int hour = 0; hour < dayOne.length; hour++) {
+            aggregator.add(DAY_ONE.plusSeconds(hour * 3_600L), BigDecimal.valueOf(dayOne[hour]));
+        }
+        for (int hour = 0; hour < dayTwo.length; hour++) {
+            aggregator.add(DAY_ONE.plusSeconds(86_400L + hour * 3_600L), BigDecimal.valueOf(dayTwo[hour]));
+        }
+
+        List<ExchangeRateCandleDTO> candles = aggregator.finish();
+
+        assertEquals(2, candles.size());
+        assertEquals(new ExchangeRateCandleDTO("2025-10-22T00:00:00Z",
+                BigDecimal.valueOf(1600.0), BigDecimal.valueOf(1620.0), BigDecimal.valueOf(1590.0),
+                BigDecimal.valueOf(1610.0), 4), candles.get(0));
+        assertEquals(new ExchangeRateCandleDTO("2025-10-23T00:00:00Z",
+                BigDecimal.valueOf(1612.0), BigDecimal.valueOf(1612.0), BigDecimal.valueOf(1605.0),
+                BigDecimal.valueOf(1605.0), 2), candles.get(1));
+    }
+
+    @Test
+    void weeksStartOnMondayUtc() {
+        // 2025-10-22 is a Wednesday
+        assertEquals(Instant.parse("2025-10-20T00:00:00Z"), RateInterval.WEEK.bucketStart(DAY_ONE.plusSeconds(3_600)));
+        assertEquals(Instant.parse("2025-10-27T00:00:00Z"),
+                RateInterval.WEEK.bucketStart(Instant.parse("2025-10-27T00:00:00Z")));
+    }
+
+    @Test
+    void rawKeepsEveryPoint() {
+        CandleAggregator aggregator = new CandleAggregator(RateInterval.RAW);
+        aggregator.add(DAY_ONE, BigDecimal.ONE);
+        aggregator.add(DAY_ONE.plusSeconds(1), BigDecimal.TWO);
+
+        assertEquals(2, aggregator.finish().size());
+    }
+}
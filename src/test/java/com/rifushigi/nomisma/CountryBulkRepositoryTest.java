@@ -0,0 +1,140 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.repository.CountryBulkRepository.UpsertResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountryBulkRepositoryTest extends AbstractCountryTableTest {
+
+    private static final int COUNTRIES = 600;
+
+    @Test
+    void reportsInsertedUpdatedAndUnchangedRows() {
+        List<Country> countries = countries(COUNTRIES, 0, 1);
+        assertEquals(new UpsertResult(COUNTRIES, 0, 0),
+                transaction.execute(_ -> countryBulkRepository.upsert(countries)));
+
+        List<Country> refreshed = countries(COUNTRIES, 0, 1);
+        for (int i = 0; i < 10; i++) {
+            refreshed.get(i).setPopulation(refreshed.get(i).getPopulation() + 1);
+        }
+        refreshed.add(countries(COUNTRIES + 1, 0, 1).getLast());
+        assertEquals(new UpsertResult(1, 10, COUNTRIES - 10),
+                transaction.execute(_ -> countryBulkRepository.upsert(refreshed)));
+        assertEquals(COUNTRIES + 1, countryRepository.count());
+        assertEquals(1_001L, jdbcTemplate.queryForObject(
+                "SELECT population FROM country WHERE name = 'Country 1'", Long.class));
+    }
+
+    @Test
+    void leavesRowsWithAnUnchangedFingerprintAndRateUntouched() {
+        transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, 0, 1)));
+        Map<String, Object> before = storedRow("Country 7");
+        assertNotNull(before.get("CONTENT_HASH"));
+
+        // Same upstream content an hour later: nothing to write
+        List<Country> again = countries(COUNTRIES, 0, 1);
+        Instant later = Instant.now().plusSeconds(3_600);
+        again.forEach(country -> country.setLastRefreshedAt(later));
+        assertEquals(new UpsertResult(0, 0, COUNTRIES),
+                transaction.execute(_ -> countryBulkRepository.upsert(again)));
+
+        Map<String, Object> after = storedRow("Country 7");
+        assertArrayEquals((byte[]) before.get("CONTENT_HASH"), (byte[]) after.get("CONTENT_HASH"));
+        assertEquals(before.get("LAST_REFRESHED_AT"), after.get("LAST_REFRESHED_AT"));
+    }
+
+    @Test
+    void deleteDuringAStagedRefreshSurvivesTheSwap() {
+        transaction.execute(_ -> countryBulkRepository.upsert(countries(10, 0, 1)));
+
+        assertEquals(10, (int) transaction.execute(_ -> countryBulkRepository.prepareStaging()));
+        transaction.execute(_ -> countryBulkRepository.upsertStaged(countries(10, 1, 1)));
+        // What deleteCountryByName does when it lands while the refresh is loading
+        transaction.executeWithoutResult(_ -> {
+            countryRepository.deleteByNameKey("country 3");
+            countryBulkRepository.deleteStaged("country 3");
+        });
+        countryBulkRepository.swapStaging();
+
+        assertEquals(9, countryRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM country WHERE name_key = 'country 3'", Integer.class));
+        assertEquals(4_001L, jdbcTemplate.queryForObject(
+                "SELECT population FROM country WHERE name = 'Country 4'", Long.class));
+
+        // The retired table is the next staging table; a second refresh swaps the originals back
+        assertEquals(9, (int) transaction.execute(_ -> countryBulkRepository.prepareStaging()));
+        transaction.execute(_ -> countryBulkRepository.upsertStaged(countries(10, 2, 1)));
+        countryBulkRepository.swapStaging();
+        assertEquals(10, countryRepository.count());
+        assertEquals(4_002L, jdbcTemplate.queryForObject(
+                "SELECT population FROM country WHERE name = 'Country 4'", Long.class));
+    }
+
+    @Test
+    void updateRatesRescalesGdpByTheRateChange() {
+        transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, 0, 1)));
+        Map<String, BigDecimal> rates = rates(2);
+        rates.remove("C01");
+
+        int updated = transaction.execute(_ -> countryBulkRepository.updateRates(rates, Instant.now()));
+
+        assertEquals(COUNTRIES - COUNTRIES / CURRENCIES, updated);
+        // Country 2 pays in C02, rate 3 -> 6; its estimate of 20,000 halves
+        assertEquals(0, new BigDecimal("10000").compareTo(gdp("country", "Country 2")));
+        assertNotNull(storedRow("Country 2").get("CONTENT_HASH"));
+        // C01 was not in the publication and is left as it was
+        assertEquals(0, new BigDecimal("10000").compareTo(gdp("country", "Country 1")));
+        assertEquals(0, (int) transaction.execute(_ -> countryBulkRepository.updateRates(rates, Instant.now())));
+
+        // A full refresh at the same rates leaves the rescaled rows alone; only C01 moved
+        assertEquals(new UpsertResult(0, COUNTRIES / CURRENCIES, COUNTRIES - COUNTRIES / CURRENCIES),
+                transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, 0, 2))));
+        assertEquals(0, new BigDecimal("10000").compareTo(gdp("country", "Country 2")));
+    }
+
+    @Test
+    void updateRatesEstimatesGdpWhereThereWasNoRate() {
+        List<Country> countries = countries(COUNTRIES, 0, 1);
+        countries.forEach(country -> {
+            country.setExchangeRate(null);
+            country.setEstimatedGdp(null);
+        });
+        transaction.execute(_ -> countryBulkRepository.upsert(countries));
+        // A staged refresh is loading: the staging copy must get the estimate too
+        transaction.execute(_ -> countryBulkRepository.prepareStaging());
+
+        assertEquals(COUNTRIES, (int) transaction.execute(_ -> countryBulkRepository.updateRates(rates(2), Instant.now())));
+
+        // Country 7: population 7,000 at C07's new rate 16, times a multiplier in [1000, 2001]
+        for (String table : List.of("country", "country_staging")) {
+            BigDecimal estimate = gdp(table, "Country 7");
+            assertNotNull(estimate, table);
+            assertTrue(estimate.compareTo(new BigDecimal("437500")) >= 0, table + ": " + estimate);
+            assertTrue(estimate.compareTo(new BigDecimal("875438")) <= 0, table + ": " + estimate);
+            assertEquals(0, new BigDecimal("16").compareTo(jdbcTemplate.queryForObject(
+                    "SELECT exchange_rate FROM " + table + " WHERE name = 'Country 7'", BigDecimal.class)));
+        }
+    }
+
+    private BigDecimal gdp(String table, String name) {
+        return jdbcTemplate.queryForObject(
+                "SELECT estimated_gdp FROM " + table + " WHERE name = ?", BigDecimal.class, name);
+    }
+
+    private Map<String, Object> storedRow(String name) {
+        return jdbcTemplate.queryForMap(
+                "SELECT content_hash, last_refreshed_at FROM country WHERE name = ?", name);
+    }
+}
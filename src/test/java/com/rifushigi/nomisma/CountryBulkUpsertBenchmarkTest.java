@@ -0,0 +1,54 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.entity.Country;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Times a full refresh write through the bulk upsert against the per-entity
+ * {@code saveAll} it replaced.
+ * Runs only with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CountryBulkUpsertBenchmarkTest extends AbstractCountryTableTest {
+
+    private static final int COUNTRIES = 2_000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    void compareSaveAllAndBulkUpsert() {
+        long saveAll = 0;
+        long upsert = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            int round = i;
+            countryRepository.deleteAllInBatch();
+            saveAll += time(() -> transaction.executeWithoutResult(_ -> saveAllLikeBefore(countries(COUNTRIES, round, 1))));
+            saveAll += time(() -> transaction.executeWithoutResult(_ -> saveAllLikeBefore(countries(COUNTRIES, round + 1, 1))));
+
+            countryRepository.deleteAllInBatch();
+            upsert += time(() -> transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, round, 1))));
+            upsert += time(() -> transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, round + 1, 1))));
+        }
+        System.out.printf("saveAll (insert + update): %8.1f ms/refresh%n", saveAll / 2_000_000.0 / ROUNDS);
+        System.out.printf("bulk upsert (insert + update): %8.1f ms/refresh%n", upsert / 2_000_000.0 / ROUNDS);
+    }
+
+    private void saveAllLikeBefore(List<Country> refreshed) {
+        Map<String, Country> existing = countryRepository.findAll().stream()
+                .collect(Collectors.toMap(c -> Country.normalizeName(c.getName()), Function.identity()));
+        List<Country> data = new ArrayList<>(refreshed.size());
+        for (Country country : refreshed) {
+            Country target = existing.getOrDefault(Country.normalizeName(country.getName()), country);
+            target.setPopulation(country.getPopulation());
+            target.setEstimatedGdp(country.getEstimatedGdp());
+            data.add(target);
+        }
+        countryRepository.saveAll(data);
+    }
+}
@@ -2,11 +2,19 @@ package com.rifushigi.nomisma;
 
 import com.rifushigi.nomisma.controller.CountryController;
 import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
 import com.rifushigi.nomisma.dto.CountrySummaryResponseDTO;
-import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.dto.RefreshJobResponseDTO;
+import com.rifushigi.nomisma.dto.UpstreamStatusDTO;
 import com.rifushigi.nomisma.exception.GlobalExceptionHandler;
 import com.rifushigi.nomisma.exception.NotFoundException;
+import com.rifushigi.nomisma.image.ChartFormat;
+import com.rifushigi.nomisma.image.ChartMetric;
+import com.rifushigi.nomisma.image.ChartRequest;
+import com.rifushigi.nomisma.image.SummaryImage;
 import com.rifushigi.nomisma.service.impl.CountryServiceImpl;
+import com.rifushigi.nomisma.snapshot.CachedResponse;
+import com.rifushigi.nomisma.snapshot.CountryListing;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -14,10 +22,15 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -44,25 +57,118 @@ class CountryControllerTest {
 
     @Test
     void testGetCountries_success() throws Exception {
-        Country country = new Country();
-        country.setName("Nigeria");
-        country.setPopulation(200_000_000L);
+        CachedResponse response = CachedResponse.of(
+                "[{\"name\":\"Nigeria\",\"population\":200000000}]".getBytes(StandardCharsets.UTF_8), true);
 
-        when(countryService.getAllCountries(any(CountryFilterDTO.class)))
-                .thenReturn(List.of(country));
+        when(countryService.getCountriesResponse(any(CountryFilterDTO.class))).thenReturn(response);
 
         mockMvc.perform(get("/countries").param("region", "Africa"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", response.etag()))
                 .andExpect(jsonPath("$[0].name").value("Nigeria"))
                 .andExpect(jsonPath("$[0].population").value(200_000_000));
 
-        verify(countryService, times(1)).getAllCountries(any(CountryFilterDTO.class));
+        verify(countryService, times(1)).getCountriesResponse(any(CountryFilterDTO.class));
+    }
+
+    @Test
+    void testGetCountries_notModified() throws Exception {
+        CachedResponse response = CachedResponse.of("[]".getBytes(StandardCharsets.UTF_8), true);
+
+        when(countryService.getCountriesResponse(any(CountryFilterDTO.class))).thenReturn(response);
+
+        mockMvc.perform(get("/countries").header("If-None-Match", response.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testGetCountries_gzip() throws Exception {
+        byte[] body = ("[" + "{\"name\":\"Nigeria\"},".repeat(100) + "{}]").getBytes(StandardCharsets.UTF_8);
+        CachedResponse response = CachedResponse.of(body, true);
+
+        when(countryService.getCountriesResponse(any(CountryFilterDTO.class))).thenReturn(response);
+
+        mockMvc.perform(get("/countries").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", response.gzipEtag()))
+                .andExpect(content().bytes(response.gzipBody()));
+    }
+
+    @Test
+    void testStreamCountries_ndjson() throws Exception {
+        CountryListing listing = mock(CountryListing.class);
+        when(listing.etag("ndjson")).thenReturn("W/\"1-abc-ndjson\"");
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"name\":\"Nigeria\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(listing).writeNdjson(any(OutputStream.class));
+        when(countryService.getCountryListing(any(CountryFilterDTO.class))).thenReturn(listing);
+
+        MvcResult result = mockMvc.perform(get("/countries").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"name\":\"Nigeria\"}\n"));
+    }
+
+    @Test
+    void testGetCountries_largeListingStreamed() throws Exception {
+        CountryListing listing = mock(CountryListing.class);
+        when(listing.etag("json")).thenReturn("W/\"1-abc-json\"");
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("[{\"name\":\"Nigeria\"}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(listing).writeJsonArray(any(OutputStream.class));
+        when(countryService.getLargeCountryListing(any(CountryFilterDTO.class))).thenReturn(Optional.of(listing));
+
+        mockMvc.perform(get("/countries"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "W/\"1-abc-json\""))
+                .andExpect(jsonPath("$[0].name").value("Nigeria"));
+
+        verify(countryService, never()).getCountriesResponse(any(CountryFilterDTO.class));
+    }
+
+    @Test
+    void testGetCountries_largeListingNotModified() throws Exception {
+        CountryListing listing = mock(CountryListing.class);
+        when(listing.etag("json")).thenReturn("W/\"1-abc-json\"");
+        when(countryService.getLargeCountryListing(any(CountryFilterDTO.class))).thenReturn(Optional.of(listing));
+
+        mockMvc.perform(get("/countries").header("If-None-Match", "W/\"1-abc-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(listing, never()).writeJsonArray(any(OutputStream.class));
+    }
+
+    @Test
+    void testStreamCountries_notModified() throws Exception {
+        CountryListing listing = mock(CountryListing.class);
+        when(listing.etag("ndjson")).thenReturn("W/\"1-abc-ndjson\"");
+        when(countryService.getCountryListing(any(CountryFilterDTO.class))).thenReturn(listing);
+
+        mockMvc.perform(get("/countries").accept(MediaType.APPLICATION_NDJSON)
+                        .header("If-None-Match", "W/\"1-abc-ndjson\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"1-abc-ndjson\""))
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(listing, never()).writeNdjson(any(OutputStream.class));
     }
 
     @Test
     void testGetCountryByName_success() throws Exception {
-        Country country = new Country();
-        country.setName("Nigeria");
+        CountryResponseDTO country = new CountryResponseDTO(
+                null, "Nigeria", null, null, null, null, null, null, null, null);
 
         when(countryService.getCountryByName("Nigeria")).thenReturn(country);
 
@@ -97,31 +203,121 @@ class CountryControllerTest {
 
     @Test
     void testGetStatus_success() throws Exception {
-        CountrySummaryResponseDTO summary = new CountrySummaryResponseDTO(250L, "2025-10-22T18:00:00Z");
+        CountrySummaryResponseDTO summary = new CountrySummaryResponseDTO(
+                250L,
+                "2025-10-22T18:00:00Z",
+                "2025-10-22T19:03:12Z",
+                "2025-10-22T18:09:40Z",
+                List.of(new UpstreamStatusDTO("countries", "OPEN", 3, "2025-10-22T18:01:00Z"),
+                        new UpstreamStatusDTO("exchange-rates", "CLOSED", 0, null)));
 
         when(countryService.getCountriesWithRefreshTimestamp()).thenReturn(summary);
 
         mockMvc.perform(get("/status"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.total_countries").value(250))
-                .andExpect(jsonPath("$.last_refreshed_at").value("2025-10-22T18:00:00Z"));
+                .andExpect(jsonPath("$.last_refreshed_at").value("2025-10-22T18:00:00Z"))
+                .andExpect(jsonPath("$.next_refresh_at").value("2025-10-22T19:03:12Z"))
+                .andExpect(jsonPath("$.next_rates_refresh_at").value("2025-10-22T18:09:40Z"))
+                .andExpect(jsonPath("$.upstreams[0].state").value("OPEN"))
+                .andExpect(jsonPath("$.upstreams[0].retry_at").value("2025-10-22T18:01:00Z"))
+                .andExpect(jsonPath("$.upstreams[1].state").value("CLOSED"));
     }
 
     @Test
     void testGetSummaryImage_success() throws Exception {
-        File dummyFile = File.createTempFile("summary", ".png");
-        dummyFile.deleteOnExit();
+        SummaryImage image = SummaryImage.of(new byte[] {(byte) 0x89, 'P', 'N', 'G'}, Instant.parse("2025-10-22T18:00:00Z"));
 
-        when(countryService.getSummaryImage()).thenReturn(dummyFile);
+        when(countryService.getSummaryImage()).thenReturn(image);
 
-        mockMvc.perform(get("/countries/image"))
+        MvcResult result = mockMvc.perform(get("/countries/image"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "inline; filename=\"summary.png\""))
-                .andExpect(content().contentType(MediaType.IMAGE_PNG));
+                .andExpect(header().string("ETag", image.etag()))
+                .andExpect(header().string("Cache-Control", "no-cache, public"))
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(image.bytes()));
 
         verify(countryService, times(1)).getSummaryImage();
     }
 
+    @Test
+    void testGetSummaryImage_notModified() throws Exception {
+        SummaryImage image = SummaryImage.of(new byte[] {(byte) 0x89, 'P', 'N', 'G'}, Instant.parse("2025-10-22T18:00:00Z"));
+
+        when(countryService.getSummaryImage()).thenReturn(image);
+
+        MvcResult result = mockMvc.perform(get("/countries/image").header("If-None-Match", image.etag()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testGetSummaryChart_parameterized() throws Exception {
+        SummaryImage image = SummaryImage.of(new byte[] {(byte) 0x89, 'P', 'N', 'G', 1}, Instant.parse("2025-10-22T18:00:00Z"));
+        ChartRequest chart = new ChartRequest("africa", ChartMetric.POPULATION, 10, 1200, 1100, ChartFormat.PNG);
+
+        when(countryService.getSummaryChart(chart)).thenReturn(CompletableFuture.completedFuture(image));
+
+        MvcResult result = mockMvc.perform(get("/countries/image")
+                        .param("region", "Africa")
+                        .param("metric", "population")
+                        .param("top", "10")
+                        .param("width", "1200")
+                        .param("height", "1100"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", image.etag()))
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(image.bytes()));
+
+        verify(countryService, never()).getSummaryImage();
+    }
+
+    @Test
+    void testGetSummaryChart_svgByAcceptHeader() throws Exception {
+        SummaryImage image = SummaryImage.of("<svg/>".getBytes(StandardCharsets.UTF_8), Instant.parse("2025-10-22T18:00:00Z"));
+        ChartRequest chart = new ChartRequest(null, ChartMetric.GDP, 5, 900, 700, ChartFormat.SVG);
+
+        when(countryService.getSummaryChart(chart)).thenReturn(CompletableFuture.completedFuture(image));
+
+        MvcResult result = mockMvc.perform(get("/countries/image").header("Accept", "image/svg+xml, image/png;q=0.5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "inline; filename=\"summary.svg\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(header().string("ETag", image.etag()))
+                .andExpect(content().contentType("image/svg+xml"))
+                .andExpect(content().bytes(image.bytes()));
+
+        verify(countryService, never()).getSummaryImage();
+    }
+
+    @Test
+    void testGetSummaryChart_invalidParameters() throws Exception {
+        mockMvc.perform(get("/countries/image").param("metric", "area").param("top", "50"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid chart request"))
+                .andExpect(jsonPath("$.details.metric").exists())
+                .andExpect(jsonPath("$.details.top").exists());
+
+        verifyNoInteractions(countryService);
+    }
+
     @Test
     void testGetSummaryImage_fileNotFound() throws Exception {
         when(countryService.getSummaryImage())
@@ -137,11 +333,59 @@ class CountryControllerTest {
 
     @Test
     void testRefresh_success() throws Exception {
-        doNothing().when(countryService).refreshCountries();
+        RefreshJobResponseDTO job = new RefreshJobResponseDTO(
+                "0190f5b4-7a1e-7000-8000-000000000001", "QUEUED", "2025-10-22T00:00:00Z",
+                null, null, null, 0, 0, 0, 1, 0, 0, null);
+        when(countryService.refreshCountries()).thenReturn(job);
 
         mockMvc.perform(post("/countries/refresh"))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/countries/refresh/" + job.id()))
+                .andExpect(jsonPath("$.id").value(job.id()))
+                .andExpect(jsonPath("$.phase").value("QUEUED"));
 
         verify(countryService, times(1)).refreshCountries();
     }
+
+    @Test
+    void testRefreshRates_success() throws Exception {
+        RefreshJobResponseDTO job = new RefreshJobResponseDTO(
+                "0190f5b4-7a1e-7000-8000-000000000002", "QUEUED", "2025-10-22T00:00:00Z",
+                null, null, null, 0, 0, 0, 1, 0, 0, null);
+        when(countryService.refreshRates()).thenReturn(job);
+
+        mockMvc.perform(post("/countries/refresh/rates"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/countries/refresh/" + job.id()))
+                .andExpect(jsonPath("$.id").value(job.id()));
+
+        verify(countryService, times(1)).refreshRates();
+        verify(countryService, never()).refreshCountries();
+    }
+
+    @Test
+    void testGetRefreshJob_success() throws Exception {
+        RefreshJobResponseDTO job = new RefreshJobResponseDTO(
+                "0190f5b4-7a1e-7000-8000-000000000001", "SUCCEEDED", "2025-10-22T00:00:00Z",
+                "2025-10-22T00:00:00Z", "2025-10-22T00:00:02Z", 2_000L, 3, 1, 246, 5, 41, 12, null);
+        when(countryService.getRefreshJob(job.id())).thenReturn(job);
+
+        mockMvc.perform(get("/countries/refresh/" + job.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phase").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.duration_ms").value(2_000))
+                .andExpect(jsonPath("$.inserted").value(3))
+                .andExpect(jsonPath("$.triggers").value(5))
+                .andExpect(jsonPath("$.connection_hold_ms").value(41));
+    }
+
+    @Test
+    void testGetRefreshJob_notFound() throws Exception {
+        when(countryService.getRefreshJob("unknown"))
+                .thenThrow(new NotFoundException("Resource not found", "Refresh job 'unknown' does not exist or has expired"));
+
+        mockMvc.perform(get("/countries/refresh/unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Resource not found"));
+    }
 }
@@ -0,0 +1,57 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.entity.CountryFingerprint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CountryFingerprintTest {
+
+    @Test
+    void ignoresDerivedFieldsAndRate() {
+        Country stored = country();
+        stored.setExchangeRate(new BigDecimal("1650.000000"));
+        stored.setEstimatedGdp(BigDecimal.valueOf(25_767_448_125L));
+        stored.setLastRefreshedAt(Instant.parse("2025-10-22T18:00:00Z"));
+
+        Country refreshed = country();
+        refreshed.setEstimatedGdp(BigDecimal.valueOf(30_000_000_000L));
+        refreshed.setLastRefreshedAt(Instant.now());
+
+        byte[] fingerprint = CountryFingerprint.of(stored);
+        assertEquals(CountryFingerprint.LENGTH, fingerprint.length);
+        assertArrayEquals(fingerprint, CountryFingerprint.of(refreshed));
+    }
+
+    @Test
+    void changesWithAnyUpstreamField() {
+        byte[] original = CountryFingerprint.of(country());
+
+        Country population = country();
+        population.setPopulation(206_139_590L);
+        Country capital = country();
+        capital.setCapital(null);
+
+        assertFalse(Arrays.equals(original, CountryFingerprint.of(population)));
+        assertFalse(Arrays.equals(original, CountryFingerprint.of(capital)));
+    }
+
+    private static Country country() {
+        Country country = new Country();
+        country.setName("Nigeria");
+        country.setCapital("Abuja");
+        country.setRegion("Africa");
+        country.setPopulation(206_139_589L);
+        country.setCurrencyCode("NGN");
+        country.setExchangeRate(new BigDecimal("1600.23"));
+        country.setFlagUrl("https://flagcdn.com/ng.svg");
+        return country;
+    }
+}
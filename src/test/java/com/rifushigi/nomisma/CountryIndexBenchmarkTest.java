@@ -0,0 +1,135 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.snapshot.CountrySnapshot;
+import com.rifushigi.nomisma.snapshot.CountrySortKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the pre-sorted index path with the per-request filter-and-sort path it replaced.
+ * The benchmark only runs with {@code -Dbenchmark=true}.
+ */
+class CountryIndexBenchmarkTest {
+
+    private static final String[] REGIONS = {"Africa", "Americas", "Asia", "Europe", "Oceania", "Polar", null};
+    private static final String[] CURRENCIES = {"NGN", "USD", "EUR", "GBP", "JPY", "XOF", "XAF", "INR", null};
+    private static final String[] SORTS = {
+            null, "name_asc", "name_desc", "population_asc", "population_desc",
+            "currency_code_asc", "currency_code_desc", "exchange_rate_asc", "exchange_rate_desc",
+            "estimated_gdp_asc", "gdp_desc", "unknown_desc"
+    };
+
+    @Test
+    void indexMatchesPerRequestSortForEveryCombination() {
+        CountrySnapshot snapshot = CountrySnapshot.of(1, generate(2_000, new Random(42)));
+
+        for (String region : REGIONS) {
+            for (String currency : CURRENCIES) {
+                for (String sort : SORTS) {
+                    CountryFilterDTO filters = new CountryFilterDTO(region, currency, sort, null, null);
+                    assertEquals(perRequestSort(snapshot, filters), snapshot.query(filters),
+                            "region=" + region + ", currency=" + currency + ", sort=" + sort);
+                }
+            }
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkIndexAgainstPerRequestSort() {
+        for (int size : new int[]{250, 25_000}) {
+            CountrySnapshot snapshot = CountrySnapshot.of(1, generate(size, new Random(7)));
+            List<CountryFilterDTO> workload = new ArrayList<>();
+            for (String region : REGIONS) {
+                for (String sort : SORTS) {
+                    workload.add(new CountryFilterDTO(region, null, sort, null, null));
+                    workload.add(new CountryFilterDTO(region, "EUR", sort, null, null));
+                }
+            }
+
+            int iterations = size > 1_000 ? 20 : 2_000;
+            long baseline = time(iterations, workload, f -> perRequestSort(snapshot, f));
+            long indexed = time(iterations, workload, snapshot::query);
+
+            System.out.printf("countries=%d queries=%d per-request-sort=%.1fus indexed=%.1fus speedup=%.1fx%n",
+                    size, iterations * workload.size(),
+                    baseline / 1_000.0 / (iterations * workload.size()),
+                    indexed / 1_000.0 / (iterations * workload.size()),
+                    (double) baseline / indexed);
+        }
+    }
+
+    private static long time(int iterations, List<CountryFilterDTO> workload,
+                             java.util.function.Function<CountryFilterDTO, List<CountryResponseDTO>> query) {
+        long sink = 0;
+        for (int warmup = 0; warmup < iterations; warmup++) {
+            for (CountryFilterDTO filters : workload) {
+                sink += query.apply(filters).size();
+            }
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (CountryFilterDTO filters : workload) {
+                sink += query.apply(filters).size();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+
+    /**
+     * The read path before the index: filter the snapshot list and sort it on every request.
+     */
+    private static List<CountryResponseDTO> perRequestSort(CountrySnapshot snapshot, CountryFilterDTO filters) {
+        Stream<CountryResponseDTO> result = snapshot.countries().stream();
+        if (filters.currency() != null && !filters.currency().isBlank()) {
+            result = result.filter(c -> filters.currency().equalsIgnoreCase(c.currencyCode()));
+        }
+        if (filters.region() != null && !filters.region().isBlank()) {
+            result = result.filter(c -> filters.region().equalsIgnoreCase(c.region()));
+        }
+        CountrySortKey.Order order = CountrySortKey.parse(filters.sort());
+        if (order != null) {
+            Comparator<CountryResponseDTO> comparator = order.key().comparator(false)
+                    .thenComparing(CountryResponseDTO::id);
+            result = result.sorted(order.descending() ? comparator.reversed() : comparator);
+        }
+        return result.toList();
+    }
+
+    private static List<CountryResponseDTO> generate(int size, Random random) {
+        List<CountryResponseDTO> countries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BigDecimal rate = random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(200_000), 2);
+            countries.add(new CountryResponseDTO(
+                    new UUID(random.nextLong(), random.nextLong()),
+                    "Country " + random.nextInt(size),
+                    "Capital " + i,
+                    REGIONS[random.nextInt(REGIONS.length)],
+                    (long) random.nextInt(1_000),
+                    CURRENCIES[random.nextInt(CURRENCIES.length)],
+                    rate,
+                    rate == null ? null : BigDecimal.valueOf(random.nextLong(1_000_000L)),
+                    null,
+                    Instant.EPOCH
+            ));
+        }
+        return countries;
+    }
+}
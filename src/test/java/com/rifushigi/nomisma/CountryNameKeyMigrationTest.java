@@ -0,0 +1,42 @@
+package com.rifushigi.nomisma;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CountryNameKeyMigrationTest {
+
+    @Test
+    void keepsTheNewestOfNamesThatDifferOnlyInCase() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:namekeymigration;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+
+        Instant now = Instant.now();
+        insert(jdbc, "a", "Nigeria", now.minusSeconds(60));
+        insert(jdbc, "b", "NIGERIA", now);
+        insert(jdbc, "c", "nigeria", null);
+        insert(jdbc, "d", "Ghana", now);
+
+        Flyway.configure().dataSource(dataSource).target("3").load().migrate();
+
+        List<Map<String, Object>> rows = jdbc.queryForList("SELECT id, name_key FROM country ORDER BY id");
+        assertEquals(2, rows.size());
+        assertEquals(Map.of("ID", "b", "NAME_KEY", "nigeria"), rows.get(0));
+        assertEquals(Map.of("ID", "d", "NAME_KEY", "ghana"), rows.get(1));
+    }
+
+    private static void insert(JdbcTemplate jdbc, String id, String name, Instant refreshedAt) {
+        jdbc.update("INSERT INTO country (id, name, population, last_refreshed_at) VALUES (?, ?, 1, ?)",
+                id, name, refreshedAt == null ? null : Timestamp.from(refreshedAt));
+    }
+}
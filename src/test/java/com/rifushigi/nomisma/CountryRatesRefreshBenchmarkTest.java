@@ -0,0 +1,38 @@
+package com.rifushigi.nomisma;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+
+/**
+ * Times a rates-only refresh, which rescales GDP estimates in place, against rewriting
+ * every row through the full-refresh upsert.
+ * Runs only with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CountryRatesRefreshBenchmarkTest extends AbstractCountryTableTest {
+
+    private static final int COUNTRIES = 2_000;
+    private static final int ROUNDS = 10;
+
+    @BeforeEach
+    void load() {
+        transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, 0, 1)));
+    }
+
+    @Test
+    void compareFullUpsertAndRatesOnlyUpdate() {
+        long upsert = 0;
+        long ratesOnly = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            int multiplier = i + 2;
+            upsert += time(() -> transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, 0, multiplier))));
+            ratesOnly += time(() -> transaction.execute(_ ->
+                    countryBulkRepository.updateRates(rates(multiplier + ROUNDS), Instant.now())));
+        }
+        System.out.printf("full upsert: %8.1f ms/refresh%n", upsert / 1_000_000.0 / ROUNDS);
+        System.out.printf("rates-only update: %8.1f ms/refresh%n", ratesOnly / 1_000_000.0 / ROUNDS);
+    }
+}
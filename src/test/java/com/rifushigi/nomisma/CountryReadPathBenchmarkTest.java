@@ -0,0 +1,121 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures latency and allocation per request of entity reads against the
+ * read-only constructor-expression views. Runs only with {@code -Dbenchmark=true}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:readpath;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CountryReadPathBenchmarkTest {
+
+    private static final int COUNTRIES = 2_000;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        countryRepository.deleteAllInBatch();
+        List<Country> countries = new ArrayList<>(COUNTRIES);
+        for (int i = 0; i < COUNTRIES; i++) {
+            Country country = new Country();
+            country.setName("Country " + i);
+            country.setCapital("Capital " + i);
+            country.setRegion(i % 2 == 0 ? "Africa" : "Europe");
+            country.setPopulation(1_000L * i);
+            country.setCurrencyCode("C" + (i % 50));
+            country.setExchangeRate(BigDecimal.valueOf(i % 50 + 1));
+            country.setEstimatedGdp(BigDecimal.valueOf(10_000L * i));
+            country.setFlagUrl("https://flagcdn.com/" + i + ".svg");
+            country.setLastRefreshedAt(Instant.now());
+            countries.add(country);
+        }
+        countryRepository.saveAll(countries);
+    }
+
+    @Test
+    void compareEntityAndViewReads() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Supplier<List<CountryResponseDTO>> entityList = () -> readWrite.execute(_ ->
+                countryRepository.findAll().stream().map(CountryResponseDTO::from).toList());
+        Supplier<List<CountryResponseDTO>> viewList = () -> readOnly.execute(_ -> {
+            try (Stream<CountryResponseDTO> rows = countryRepository.streamAllViews()) {
+                return rows.toList();
+            }
+        });
+        Supplier<Object> entityLookup = () -> readWrite.execute(_ ->
+                countryRepository.getCountryByNameKey("country 1234").map(CountryResponseDTO::from).orElseThrow());
+        Supplier<Object> viewLookup = () -> readOnly.execute(_ ->
+                countryRepository.findViewByNameKey("country 1234").orElseThrow());
+
+        assertEquals(COUNTRIES, entityList.get().size());
+        assertEquals(COUNTRIES, viewList.get().size());
+
+        report("full listing, entities", measure(entityList));
+        report("full listing, views   ", measure(viewList));
+        report("name lookup, entities ", measure(entityLookup));
+        report("name lookup, views    ", measure(viewLookup));
+    }
+
+    private static long[] measure(Supplier<?> request) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ROUNDS; i++) {
+            request.get();
+        }
+
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            request.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new long[]{elapsed / ROUNDS, allocated / ROUNDS};
+    }
+
+    private static void report(String label, long[] result) {
+        System.out.printf("%s: %8.1f us/request %10.1f KiB allocated/request%n",
+                label, result[0] / 1_000.0, result[1] / 1024.0);
+    }
+}
@@ -0,0 +1,143 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.projection.CountryGdpProjection;
+import com.rifushigi.nomisma.repository.CountryBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times how long a refresh holds a database connection: the single transaction of the
+ * original refresh, which also covered the chart rendering, against the staging load in
+ * short per-chunk transactions. Upstream calls are left out of both; the original
+ * transaction also spanned them, so its figure is a lower bound. The table swap is not
+ * timed: on H2 it is three plain renames, not MySQL's atomic {@code RENAME TABLE}.
+ * Runs only with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CountryRefreshConnectionHoldBenchmarkTest extends AbstractCountryTableTest {
+
+    private static final int COUNTRIES = 250;
+    private static final int ROUNDS = 20;
+
+    @BeforeEach
+    void load() {
+        transaction.execute(_ -> countryBulkRepository.upsert(countries(COUNTRIES, 0, 1)));
+    }
+
+    @Test
+    void compareSingleTransactionAndStagedChunks() {
+        // Warm up both paths before timing
+        for (int i = 1; i <= 3; i++) {
+            int round = i;
+            transaction.executeWithoutResult(_ -> refreshLikeBefore(countries(COUNTRIES, round, 1)));
+            refreshStaged(countries(COUNTRIES, round + 1, 1));
+        }
+
+        long before = 0;
+        long beforeLongest = 0;
+        long after = 0;
+        long afterLongest = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            int round = 10 + 2 * i;
+            long held = time(() -> transaction.executeWithoutResult(_ -> refreshLikeBefore(countries(COUNTRIES, round, 1))));
+            before += held;
+            beforeLongest = Math.max(beforeLongest, held);
+
+            long[] staged = refreshStaged(countries(COUNTRIES, round + 1, 1));
+            after += staged[0];
+            afterLongest = Math.max(afterLongest, staged[1]);
+        }
+        System.out.printf("single transaction: %8.2f ms held/refresh, longest hold %8.2f ms%n",
+                before / 1_000_000.0 / ROUNDS, beforeLongest / 1_000_000.0);
+        System.out.printf("staged chunks:      %8.2f ms held/refresh, longest hold %8.2f ms%n",
+                after / 1_000_000.0 / ROUNDS, afterLongest / 1_000_000.0);
+        assertEquals(COUNTRIES, countryRepository.count());
+    }
+
+    // The original refresh body, all of it inside the caller's transaction
+    private void refreshLikeBefore(List<Country> refreshed) {
+        Map<String, Country> existing = countryRepository.findAll().stream()
+                .collect(Collectors.toMap(c -> Country.normalizeName(c.getName()), Function.identity()));
+        List<Country> data = new ArrayList<>(refreshed.size());
+        for (Country country : refreshed) {
+            Country target = existing.getOrDefault(Country.normalizeName(country.getName()), country);
+            target.setPopulation(country.getPopulation());
+            target.setEstimatedGdp(country.getEstimatedGdp());
+            target.setLastRefreshedAt(country.getLastRefreshedAt());
+            data.add(target);
+        }
+        countryRepository.saveAll(data);
+        countryRepository.flush();
+
+        long total = countryRepository.count();
+        List<CountryGdpProjection> top = countryRepository.findTop5ByOrderByEstimatedGdpDesc();
+        render(total, top);
+    }
+
+    // Copy to staging, then one short transaction per chunk; returns {total, longest} hold
+    private long[] refreshStaged(List<Country> refreshed) {
+        long start = System.nanoTime();
+        transaction.execute(_ -> countryBulkRepository.prepareStaging());
+        long longest = System.nanoTime() - start;
+        long total = longest;
+        for (int from = 0; from < refreshed.size(); from += CountryBulkRepository.ROWS_PER_STATEMENT) {
+            List<Country> chunk = refreshed.subList(from, Math.min(from + CountryBulkRepository.ROWS_PER_STATEMENT, refreshed.size()));
+            long chunkStart = System.nanoTime();
+            transaction.execute(_ -> countryBulkRepository.upsertStaged(chunk));
+            long held = System.nanoTime() - chunkStart;
+            total += held;
+            longest = Math.max(longest, held);
+        }
+        return new long[]{total, longest};
+    }
+
+    // Draws and encodes a 900x700 PNG bar chart, as the original refresh did
+    private static byte[] render(long total, List<CountryGdpProjection> top) {
+        BufferedImage image = new BufferedImage(900, 700, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(new Color(250, 251, 252));
+        g.fillRect(0, 0, 900, 700);
+        g.setColor(new Color(15, 23, 42));
+        g.setFont(new Font("SansSerif", Font.BOLD, 36));
+        g.drawString("Country Summary", 50, 80);
+        g.setFont(new Font("SansSerif", Font.PLAIN, 16));
+        g.drawString("Total Countries: " + total, 65, 150);
+        double max = top.stream().mapToDouble(c -> c.getEstimatedGdp() == null ? 0 : c.getEstimatedGdp()).max().orElse(1);
+        for (int i = 0; i < top.size(); i++) {
+            double gdp = top.get(i).getEstimatedGdp() == null ? 0 : top.get(i).getEstimatedGdp();
+            g.setColor(new Color(37, 99, 235));
+            g.fillRoundRect(250, 300 + 75 * i, (int) (550 * gdp / max), 40, 8, 8);
+            g.setColor(new Color(15, 23, 42));
+            g.drawString(top.get(i).getName(), 50, 325 + 75 * i);
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
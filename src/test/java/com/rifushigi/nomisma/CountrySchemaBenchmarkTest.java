@@ -0,0 +1,145 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.entity.TimeOrderedUuid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Times the filter and sort queries against the original country schema and the
+ * indexed, binary-keyed one, on H2 in MySQL mode. Runs only with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CountrySchemaBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int ROUNDS = 200;
+    private static final String[] REGIONS = {"Africa", "Americas", "Asia", "Europe", "Oceania", "Polar"};
+
+    @Test
+    void compareSchemas() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:schema;MODE=MySQL;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "")) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("""
+                        CREATE TABLE country_before (
+                            id VARCHAR(255) NOT NULL, name VARCHAR(255) NOT NULL, name_key VARCHAR(255) NOT NULL,
+                            capital VARCHAR(255) NULL, region VARCHAR(255) NULL, population BIGINT NOT NULL,
+                            currency_code VARCHAR(255) NULL, exchange_rate DECIMAL NULL, estimated_gdp DECIMAL(20, 2) NULL,
+                            flag_url VARCHAR(255) NULL, last_refreshed_at datetime NULL,
+                            CONSTRAINT pk_country_before PRIMARY KEY (id))""");
+                ddl.execute("""
+                        CREATE TABLE country_after (
+                            id BINARY(16) NOT NULL, name VARCHAR(255) NOT NULL, name_key VARCHAR(255) NOT NULL,
+                            capital VARCHAR(255) NULL, region VARCHAR(255) NULL, population BIGINT NOT NULL,
+                            currency_code CHAR(3) NULL, exchange_rate DECIMAL(20, 6) NULL, estimated_gdp DECIMAL(20, 2) NULL,
+                            flag_url VARCHAR(255) NULL, last_refreshed_at datetime NULL,
+                            CONSTRAINT pk_country_after PRIMARY KEY (id))""");
+                ddl.execute("CREATE INDEX idx_after_region ON country_after (region)");
+                ddl.execute("CREATE INDEX idx_after_currency_code ON country_after (currency_code)");
+                ddl.execute("CREATE INDEX idx_after_estimated_gdp ON country_after (estimated_gdp)");
+                ddl.execute("CREATE INDEX idx_after_population ON country_after (population)");
+            }
+
+            UUID[] beforeIds = new UUID[ROWS];
+            UUID[] afterIds = new UUID[ROWS];
+            long beforeLoad = load(connection, "country_before", beforeIds, false);
+            long afterLoad = load(connection, "country_after", afterIds, true);
+            System.out.printf("load %d rows: before=%d ms after=%d ms%n", ROWS, beforeLoad, afterLoad);
+
+            for (String table : new String[]{"country_before", "country_after"}) {
+                report(connection, table, "region + gdp sort",
+                        "SELECT * FROM " + table + " WHERE region = ? ORDER BY estimated_gdp DESC", "Africa");
+                report(connection, table, "currency filter  ",
+                        "SELECT * FROM " + table + " WHERE currency_code = ?", "017");
+                report(connection, table, "top 10 population",
+                        "SELECT * FROM " + table + " ORDER BY population DESC LIMIT 10", null);
+            }
+            reportIdLookup(connection, "country_before", beforeIds[ROWS / 2].toString());
+            reportIdLookup(connection, "country_after", toBytes(afterIds[ROWS / 2]));
+        }
+    }
+
+    private static long load(Connection connection, String table, UUID[] ids, boolean binaryId) throws SQLException {
+        Random random = new Random(11);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+                + " (id, name, name_key, region, population, currency_code, exchange_rate, estimated_gdp)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                ids[i] = binaryId ? TimeOrderedUuid.generate() : UUID.randomUUID();
+                if (binaryId) {
+                    insert.setBytes(1, toBytes(ids[i]));
+                } else {
+                    insert.setString(1, ids[i].toString());
+                }
+                insert.setString(2, "Country " + i);
+                insert.setString(3, "country " + i);
+                insert.setString(4, REGIONS[random.nextInt(REGIONS.length)]);
+                insert.setLong(5, random.nextInt(1_000_000_000));
+                insert.setString(6, String.format("%03d", random.nextInt(160)));
+                insert.setBigDecimal(7, BigDecimal.valueOf(random.nextInt(100_000), 2));
+                insert.setBigDecimal(8, BigDecimal.valueOf(random.nextLong(1_000_000_000_000L)));
+                insert.addBatch();
+                if (i % 1_000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void report(Connection connection, String table, String label, String sql, Object parameter)
+            throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            if (parameter != null) {
+                query.setObject(1, parameter);
+            }
+            int rounds = ROUNDS / 10;
+            long elapsed = time(query, rounds);
+            System.out.printf("%-15s %s: %8.3f ms/query%n", table, label, elapsed / 1_000_000.0 / rounds);
+        }
+    }
+
+    private static void reportIdLookup(Connection connection, String table, Object id) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT * FROM " + table + " WHERE id = ?")) {
+            query.setObject(1, id);
+            long elapsed = time(query, ROUNDS);
+            System.out.printf("%-15s id lookup        : %8.3f ms/query%n", table, elapsed / 1_000_000.0 / ROUNDS);
+        }
+    }
+
+    private static long time(PreparedStatement query, int rounds) throws SQLException {
+        drain(query);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            drain(query);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void drain(PreparedStatement query) throws SQLException {
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                rows.getObject(1);
+            }
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
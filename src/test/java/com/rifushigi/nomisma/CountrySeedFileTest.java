@@ -0,0 +1,111 @@
+package com.rifushigi.nomisma;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.rifushigi.nomisma.entity.Country;
+import com.rifushigi.nomisma.snapshot.CountrySeedFile;
+import com.rifushigi.nomisma.snapshot.CountrySnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountrySeedFileTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void writtenSnapshotLoadsBackInChunks() throws Exception {
+        List<CountryResponseDTO> countries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            countries.add(new CountryResponseDTO(
+                    new UUID(0, i), "Country " + i, "Capital " + i, "Africa", 1_000L * i, "NGN",
+                    new BigDecimal("1600.230000"), BigDecimal.valueOf(25_000L * i),
+                    "https://flagcdn.com/" + i + ".svg", Instant.parse("2025-10-22T18:00:00Z")));
+        }
+        CountrySeedFile seedFile = seedFile(directory.resolve("seed.ndjson.gz"));
+        seedFile.write(CountrySnapshot.of(7, countries));
+
+        List<List<Country>> chunks = new ArrayList<>();
+        assertEquals(1, seedFile.sources().size());
+        CountrySeedFile.Header header = seedFile.load(seedFile.sources().getFirst(), 2, chunks::add);
+
+        assertEquals(7, header.snapshotVersion());
+        assertEquals(5, header.count());
+        assertEquals(List.of(2, 2, 1), chunks.stream().map(List::size).toList());
+        List<CountryResponseDTO> loaded = chunks.stream().flatMap(List::stream).map(CountryResponseDTO::from).toList();
+        assertEquals(countries, loaded);
+    }
+
+    @Test
+    void unsupportedOrMissingSeedIsRejected() throws Exception {
+        Path file = directory.resolve("seed.ndjson.gz");
+        CountrySeedFile seedFile = seedFile(file);
+        assertTrue(seedFile.sources().isEmpty());
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("{\"format\":\"nomisma-countries\",\"version\":99}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        List<List<Country>> chunks = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> seedFile.load(seedFile.sources().getFirst(), 2, chunks::add));
+        assertTrue(chunks.isEmpty());
+    }
+
+    @Test
+    void corruptLineFailsTheLoadAfterEarlierChunks() throws Exception {
+        Path file = directory.resolve("seed.ndjson.gz");
+        CountrySeedFile seedFile = seedFile(file);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(("{\"format\":\"nomisma-countries\",\"version\":1,\"count\":3}\n"
+                    + "{\"name\":\"Nigeria\",\"population\":1}\n"
+                    + "{\"name\":\"Ghana\",\"population\":2}\n"
+                    + "{\"name\":\"Ke").getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<List<Country>> chunks = new ArrayList<>();
+        assertThrows(UncheckedIOException.class, () -> seedFile.load(seedFile.sources().getFirst(), 2, chunks::add));
+        // The caller's transaction has to undo this chunk
+        assertEquals(1, chunks.size());
+    }
+
+    @Test
+    void bundledSeedIsUsedOnlyWhenConfigured() throws Exception {
+        Path bundled = directory.resolve("bundled.ndjson.gz");
+        seedFile(directory.resolve("written.ndjson.gz")).write(CountrySnapshot.of(1, List.of()));
+        Files.move(directory.resolve("written.ndjson.gz"), bundled);
+
+        assertTrue(seedFile(directory.resolve("seed.ndjson.gz")).sources().isEmpty());
+        CountrySeedFile configured = new CountrySeedFile(objectMapper, new DefaultResourceLoader(),
+                directory.resolve("seed.ndjson.gz").toString(), "file:" + bundled);
+        assertEquals(1, configured.sources().size());
+        assertEquals(bundled.toFile(), configured.sources().getFirst().getFile());
+    }
+
+    private CountrySeedFile seedFile(Path file) {
+        return new CountrySeedFile(objectMapper, new DefaultResourceLoader(), file.toString(), "");
+    }
+}
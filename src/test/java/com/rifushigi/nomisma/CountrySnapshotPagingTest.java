@@ -0,0 +1,130 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.CountryFilterDTO;
+import com.rifushigi.nomisma.dto.CountryPageResponseDTO;
+import com.rifushigi.nomisma.dto.CountryResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rifushigi.nomisma.snapshot.CachedResponse;
+import com.rifushigi.nomisma.snapshot.CountryListingStreamer;
+import com.rifushigi.nomisma.snapshot.CountryResponseCache;
+import com.rifushigi.nomisma.snapshot.CountrySnapshot;
+import com.rifushigi.nomisma.snapshot.CountrySnapshotHolder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CountrySnapshotPagingTest {
+
+    private final CountrySnapshot snapshot = CountrySnapshot.of(1, generate(new Random(3)));
+
+    @Test
+    void pagesConcatenateToTheUnpagedListing() {
+        String[] sorts = {null, "name_asc", "population_desc", "currency_code_asc", "exchange_rate_desc", "gdp_asc"};
+        for (String region : new String[]{null, "Africa"}) {
+            for (String sort : sorts) {
+                List<CountryResponseDTO> expected = snapshot.query(new CountryFilterDTO(region, null, sort, null, null));
+                List<CountryResponseDTO> paged = new ArrayList<>();
+                String cursor = null;
+                do {
+                    CountryPageResponseDTO page = snapshot.page(new CountryFilterDTO(region, null, sort, 7, cursor));
+                    assertTrue(page.data().size() <= 7);
+                    paged.addAll(page.data());
+                    cursor = page.nextCursor();
+                } while (cursor != null);
+
+                assertEquals(expected, paged, "region=" + region + ", sort=" + sort);
+            }
+        }
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CountryPageResponseDTO page = snapshot.page(new CountryFilterDTO(null, null, "name_asc", 1000, null));
+        assertEquals(snapshot.size(), page.data().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSort() {
+        String cursor = snapshot.page(new CountryFilterDTO(null, null, "name_asc", 5, null)).nextCursor();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshot.page(new CountryFilterDTO(null, null, "gdp_desc", 5, cursor)));
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshot.page(new CountryFilterDTO(null, null, "name_asc", 5, "not-a-cursor")));
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshot.page(new CountryFilterDTO(null, null, "name_asc", 0, null)));
+    }
+
+    @Test
+    void cursorPagesDoNotTakeCacheEntries() {
+        CountrySnapshotHolder holder = mock(CountrySnapshotHolder.class);
+        when(holder.get()).thenReturn(snapshot);
+        CountryResponseCache cache = new CountryResponseCache(holder, new ObjectMapper().findAndRegisterModules(), false, 1);
+        String cursor = snapshot.page(new CountryFilterDTO(null, null, "name_asc", 5, null)).nextCursor();
+        CountryFilterDTO next = new CountryFilterDTO(null, null, "name_asc", 5, cursor);
+        CountryFilterDTO first = new CountryFilterDTO(null, null, "name_asc", 5, null);
+
+        CachedResponse page = cache.get(next);
+        assertNotSame(page, cache.get(next));
+        assertSame(cache.get(first), cache.get(first));
+    }
+
+    @Test
+    void listingEtagFollowsContentNotVersion() {
+        List<CountryResponseDTO> countries = generate(new Random(3));
+        List<CountryResponseDTO> changed = new ArrayList<>(countries);
+        CountryResponseDTO first = changed.getFirst();
+        changed.set(0, new CountryResponseDTO(first.id(), first.name(), first.capital(), first.region(),
+                first.population() + 1, first.currencyCode(), first.exchangeRate(), first.estimatedGdp(),
+                first.flagUrl(), first.lastRefreshedAt()));
+        CountryFilterDTO all = new CountryFilterDTO(null, null, null, null, null);
+
+        // Another instance numbers its snapshots on its own
+        assertEquals(etag(CountrySnapshot.of(1, countries), all), etag(CountrySnapshot.of(9, countries), all));
+        assertNotEquals(etag(snapshot, all), etag(CountrySnapshot.of(1, changed), all));
+        assertNotEquals(etag(snapshot, all), etag(snapshot, new CountryFilterDTO("Africa", null, null, null, null)));
+    }
+
+    private static String etag(CountrySnapshot snapshot, CountryFilterDTO filters) {
+        CountrySnapshotHolder holder = mock(CountrySnapshotHolder.class);
+        when(holder.get()).thenReturn(snapshot);
+        return new CountryListingStreamer(holder, new ObjectMapper(), 5000).open(filters).etag("json");
+    }
+
+    private static List<CountryResponseDTO> generate(Random random) {
+        String[] regions = {"Africa", "Europe", null};
+        List<CountryResponseDTO> countries = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            BigDecimal rate = i % 9 == 0 ? null : BigDecimal.valueOf(random.nextInt(50), 2);
+            countries.add(new CountryResponseDTO(
+                    new UUID(0, random.nextInt(1_000_000)),
+                    "Country|" + random.nextInt(40),
+                    null,
+                    regions[random.nextInt(regions.length)],
+                    (long) random.nextInt(10),
+                    i % 7 == 0 ? null : "C" + random.nextInt(5),
+                    rate,
+                    rate == null ? null : BigDecimal.valueOf(random.nextInt(20)),
+                    null,
+                    Instant.EPOCH
+            ));
+        }
+        return countries;
+    }
+}
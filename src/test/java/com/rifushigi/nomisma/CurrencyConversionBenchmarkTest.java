@@ -0,0 +1,63 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.rates.CurrencyRateTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times single-threaded conversions against a rate table of 160 currencies, the size of
+ * the provider's USD publication, with the codes resolved per call as the endpoints do.
+ * Runs only with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CurrencyConversionBenchmarkTest {
+
+    private static final int CURRENCIES = 160;
+    private static final int PAIRS = 4_096;
+    private static final int CONVERSIONS = 20_000_000;
+
+    @Test
+    void conversionsPerSecondOnOneCore() {
+        Random random = new Random(42);
+        Map<String, Double> rates = new HashMap<>();
+        while (rates.size() < CURRENCIES) {
+            String code = "" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                    + (char) ('A' + random.nextInt(26));
+            rates.put(code, 0.01 + random.nextDouble() * 5_000);
+        }
+        CurrencyRateTable table = CurrencyRateTable.of(1, Instant.now(), rates);
+        String[] codes = rates.keySet().toArray(String[]::new);
+        String[] from = new String[PAIRS];
+        String[] to = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            from[i] = codes[random.nextInt(CURRENCIES)];
+            to[i] = codes[random.nextInt(CURRENCIES)];
+        }
+
+        double sink = run(table, from, to, CONVERSIONS / 4);
+        long start = System.nanoTime();
+        sink += run(table, from, to, CONVERSIONS);
+        long elapsed = System.nanoTime() - start;
+
+        double perSecond = CONVERSIONS / (elapsed / 1e9);
+        System.out.printf("%,.0f conversions/s on one thread (%.1f ns each, checksum %.3e)%n",
+                perSecond, (double) elapsed / CONVERSIONS, sink);
+        assertTrue(perSecond > 200_000, "only " + perSecond + " conversions/s");
+    }
+
+    private static double run(CurrencyRateTable table, String[] from, String[] to, int conversions) {
+        double sum = 0;
+        for (int i = 0; i < conversions; i++) {
+            int pair = i & (PAIRS - 1);
+            sum += table.convert(table.indexOf(from[pair]), table.indexOf(to[pair]), i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,106 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.ConversionBatchRequestDTO;
+import com.rifushigi.nomisma.dto.ConversionBatchResponseDTO;
+import com.rifushigi.nomisma.dto.ConversionRequestDTO;
+import com.rifushigi.nomisma.dto.ConversionResponseDTO;
+import com.rifushigi.nomisma.exception.FieldValidationException;
+import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import com.rifushigi.nomisma.rates.CurrencyRateTable;
+import com.rifushigi.nomisma.rates.CurrencyRateTableHolder;
+import com.rifushigi.nomisma.service.impl.CurrencyConversionServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CurrencyConversionTest {
+
+    private static final Instant PUBLISHED = Instant.parse("2025-10-22T00:02:31Z");
+    private static final Map<String, Double> RATES = Map.of("USD", 1.0, "NGN", 1600.0, "EUR", 0.8, "GBP", 0.75);
+
+    @Test
+    void crossRatesGoThroughTheDollar() {
+        CurrencyRateTable table = CurrencyRateTable.of(1, PUBLISHED, RATES);
+
+        int ngn = table.indexOf("NGN");
+        int eur = table.indexOf("eur");
+        assertEquals(4, table.size());
+        assertEquals("EUR", table.codeAt(eur));
+        assertEquals(0.0005, table.rate(ngn, eur), 1e-12);
+        assertEquals(100.0, table.convert(ngn, eur, 200_000), 1e-9);
+        assertEquals(1.0, table.rate(eur, eur));
+    }
+
+    @Test
+    void malformedUnknownAndUnusableRatesAreLeftOut() {
+        Map<String, Double> rates = new HashMap<>(RATES);
+        rates.put("XAG", 0.0);
+        rates.put("XAU", Double.NaN);
+        rates.put("XPT", null);
+        rates.put("EURO", 0.8);
+        CurrencyRateTable table = CurrencyRateTable.of(1, PUBLISHED, rates);
+
+        assertEquals(4, table.size());
+        assertEquals(-1, table.indexOf("XAG"));
+        assertEquals(-1, table.indexOf("XAU"));
+        assertEquals(-1, table.indexOf("JPY"));
+        assertEquals(-1, table.indexOf("E1R"));
+        assertEquals(-1, table.indexOf(null));
+    }
+
+    @Test
+    void holderOnlyPublishesNewerRates() {
+        CurrencyRateTableHolder holder = new CurrencyRateTableHolder();
+        holder.publishIfNewer(PUBLISHED, RATES);
+        holder.publishIfNewer(PUBLISHED, Map.of("USD", 1.0));
+        assertEquals(1, holder.get().version());
+        assertEquals(4, holder.get().size());
+
+        holder.publishIfNewer(PUBLISHED.plusSeconds(86_400), Map.of("USD", 1.0));
+        assertEquals(2, holder.get().version());
+        assertEquals(1, holder.get().size());
+    }
+
+    @Test
+    void conversionsReportTheSnapshotTheyUsed() {
+        CurrencyRateTableHolder holder = new CurrencyRateTableHolder();
+        CurrencyConversionServiceImpl service = new CurrencyConversionServiceImpl(holder);
+        assertThrows(ServiceUnavailableException.class, () -> service.convert("NGN", "EUR", "1"));
+        holder.publishIfNewer(PUBLISHED, RATES);
+
+        ConversionResponseDTO single = service.convert("ngn", "EUR", "200000");
+        assertEquals("NGN", single.from());
+        assertEquals(100.0, single.result(), 1e-9);
+        assertEquals(1, single.ratesVersion());
+        assertEquals(PUBLISHED.toString(), single.ratesPublishedAt());
+
+        ConversionBatchResponseDTO batch = service.convertBatch(new ConversionBatchRequestDTO(List.of(
+                new ConversionRequestDTO("USD", "NGN", 2.0),
+                new ConversionRequestDTO("GBP", "EUR", 75.0))));
+        assertEquals(1, batch.ratesVersion());
+        assertArrayEquals(new double[] {3200.0, 80.0}, batch.results(), 1e-9);
+    }
+
+    @Test
+    void invalidTuplesNameTheirPosition() {
+        CurrencyRateTableHolder holder = new CurrencyRateTableHolder();
+        holder.publishIfNewer(PUBLISHED, RATES);
+        CurrencyConversionServiceImpl service = new CurrencyConversionServiceImpl(holder);
+
+        FieldValidationException unknown = assertThrows(FieldValidationException.class, () ->
+                service.convertBatch(new ConversionBatchRequestDTO(List.of(
+                        new ConversionRequestDTO("USD", "NGN", 2.0),
+                        new ConversionRequestDTO("USD", "JPY", 2.0)))));
+        assertEquals(Map.of("conversions[1].to", "unknown currency code 'JPY'"), unknown.getDetails());
+        assertThrows(FieldValidationException.class, () -> service.convert("USD", "NGN", "ten"));
+        assertThrows(FieldValidationException.class, () ->
+                service.convertBatch(new ConversionBatchRequestDTO(List.of())));
+    }
+}
@@ -0,0 +1,87 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.ExchangeRateCandleDTO;
+import com.rifushigi.nomisma.rates.CandleAggregator;
+import com.rifushigi.nomisma.rates.RateInterval;
+import com.rifushigi.nomisma.repository.ExchangeRateHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Loads a year of hourly rates for a spread of currencies and times a one-year range
+ * query for one currency, downsampled to daily candles.
+ * Runs only with {@code -Dbenchmark=true}.
+ */
+@DataJpaTest
+@Import(ExchangeRateHistoryRepository.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ratehistory;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExchangeRateHistoryBenchmarkTest {
+
+    private static final int CURRENCIES = 160;
+    private static final int HOURS = 365 * 24;
+    private static final int ROUNDS = 50;
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private ExchangeRateHistoryRepository historyRepository;
+
+    @Test
+    void yearOfHourlyPointsAsDailyCandles() {
+        for (int hour = 0; hour < HOURS; hour++) {
+            Map<String, BigDecimal> rates = new TreeMap<>();
+            for (int c = 0; c < CURRENCIES; c++) {
+                rates.put(code(c), BigDecimal.valueOf(1_000 + c + Math.sin(hour / 24.0) * 10).setScale(6, RoundingMode.HALF_UP));
+            }
+            historyRepository.append(START.plus(Duration.ofHours(hour)), rates);
+        }
+
+        Instant end = START.plus(Duration.ofHours(HOURS));
+        List<ExchangeRateCandleDTO> candles = query(end);
+        assertEquals(365, candles.size());
+        assertEquals(24, candles.getFirst().samples());
+
+        long total = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            query(end);
+            total += System.nanoTime() - start;
+        }
+        System.out.printf("one currency, %d hourly points -> %d daily candles: %.2f ms/query%n",
+                HOURS, candles.size(), total / 1_000_000.0 / ROUNDS);
+    }
+
+    private List<ExchangeRateCandleDTO> query(Instant end) {
+        CandleAggregator aggregator = new CandleAggregator(RateInterval.DAY);
+        historyRepository.scan(code(42), START, end, aggregator::add);
+        return aggregator.finish();
+    }
+
+    private static String code(int index) {
+        return "C" + (char) ('A' + index / 26 % 26) + (char) ('A' + index % 26);
+    }
+}
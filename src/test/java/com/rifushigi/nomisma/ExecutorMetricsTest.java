@@ -0,0 +1,77 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.config.ExecutorConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saturates a one-thread render pool and reads its gauges, timers and rejection counter.
+ */
+class ExecutorMetricsTest {
+
+    @Test
+    void boundedPoolReportsActiveQueuedAndRejectedTasks() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("nomisma.executor.render.pool-size", "1")
+                .withProperty("nomisma.executor.render.queue-capacity", "1");
+        AsyncTaskExecutor executor = new ExecutorConfig(environment, registry).renderExecutor();
+        ThreadPoolTaskExecutor pool = assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        pool.initialize();
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> first = executor.submit(() -> {
+                running.countDown();
+                release.await();
+                return null;
+            });
+            Future<?> second = executor.submit(() -> { });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            assertEquals(1.0, gauge(registry, "nomisma.executor.active"));
+            assertEquals(1.0, gauge(registry, "nomisma.executor.queued"));
+            assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> { }));
+            assertEquals(1.0, registry.get("nomisma.executor.rejected").tag("name", "render").counter().count());
+            assertEquals(1.0, gauge(registry, "nomisma.executor.queued"));
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+
+        assertEquals(2, registry.get("nomisma.executor.wait").tag("name", "render").timer().count());
+        assertEquals(0.0, gauge(registry, "nomisma.executor.queued"));
+    }
+
+    @Test
+    void ioStagesRunOnVirtualThreads() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        AsyncTaskExecutor executor = new ExecutorConfig(new MockEnvironment(), registry).refreshExecutor();
+
+        assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+        assertEquals(1, registry.get("nomisma.executor.wait").tag("name", "refresh").timer().count());
+    }
+
+    private static double gauge(MeterRegistry registry, String name) {
+        return registry.get(name).tag("name", "render").gauge().value();
+    }
+}
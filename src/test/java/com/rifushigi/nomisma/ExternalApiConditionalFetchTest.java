@@ -0,0 +1,165 @@
+package com.rifushigi.nomisma;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rifushigi.nomisma.dto.ExternalDataDTO;
+import com.rifushigi.nomisma.service.impl.ExternalApiServiceImpl;
+import com.rifushigi.nomisma.upstream.CircuitBreaker;
+import com.rifushigi.nomisma.upstream.UpstreamResponseCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks that upstream fetches are conditional on the cached validators and that
+ * rates inside the provider's validity window are served from the on-disk cache.
+ */
+class ExternalApiConditionalFetchTest {
+
+    private static final String COUNTRIES = """
+            [{"name":"Nigeria","capital":"Abuja","region":"Africa","population":206139589,
+              "currencies":[{"code":"NGN"}],"flag":"https://flagcdn.com/ng.svg"}]""";
+    private static final String LAST_MODIFIED = "Wed, 22 Oct 2025 00:02:31 GMT";
+
+    private HttpServer server;
+    private final AtomicInteger countryRequests = new AtomicInteger();
+    private final AtomicInteger countriesNotModified = new AtomicInteger();
+    private final AtomicInteger rateRequests = new AtomicInteger();
+    private final AtomicInteger ratesNotModified = new AtomicInteger();
+    private volatile String countriesEtag = "\"v1\"";
+    private volatile long ratesNextUpdate;
+
+    @TempDir
+    private Path cacheDir;
+
+    @BeforeEach
+    void startStandIns() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v2/all", exchange -> {
+            countryRequests.incrementAndGet();
+            if (countriesEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                countriesNotModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", countriesEtag);
+            respond(exchange, COUNTRIES);
+        });
+        server.createContext("/v6/latest/USD", exchange -> {
+            rateRequests.incrementAndGet();
+            if (LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+                ratesNotModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+            respond(exchange, """
+                    {"result":"success","base_code":"USD","rates":{"USD":1,"NGN":1600.23},
+                     "time_next_update_unix":%d}""".formatted(ratesNextUpdate));
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStandIns() {
+        server.stop(0);
+    }
+
+    @Test
+    void unchangedUpstreamsAreNotDownloadedAgain() {
+        ratesNextUpdate = Instant.now().plusSeconds(3_600).getEpochSecond();
+        ExternalApiServiceImpl service = service();
+
+        ExternalDataDTO first = service.fetchAll();
+        ExternalDataDTO second = service.fetchAll();
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertEquals(2, countryRequests.get());
+        assertEquals(1, countriesNotModified.get());
+        // Inside the declared validity window the rates are not requested again
+        assertEquals(1, rateRequests.get());
+        assertEquals(1600.23, second.exchangeRate().rates().get("NGN"));
+    }
+
+    @Test
+    void expiredRatesAreRevalidated() {
+        ratesNextUpdate = Instant.now().minusSeconds(60).getEpochSecond();
+        ExternalApiServiceImpl service = service();
+
+        ExternalDataDTO first = service.fetchAll();
+        ExternalDataDTO second = service.fetchAll();
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertEquals(2, rateRequests.get());
+        assertEquals(1, ratesNotModified.get());
+    }
+
+    @Test
+    void changedUpstreamChangesTheFingerprint() {
+        ExternalApiServiceImpl service = service();
+        ExternalDataDTO first = service.fetchAll();
+
+        countriesEtag = "\"v2\"";
+        ExternalDataDTO second = service.fetchAll();
+
+        assertEquals(0, countriesNotModified.get());
+        // Same bytes under a new validator still fingerprint alike
+        assertEquals(first.fingerprint(), second.fingerprint());
+
+        server.removeContext("/v2/all");
+        server.createContext("/v2/all", exchange -> respond(exchange, "[]"));
+        assertNotEquals(first.fingerprint(), service.fetchAll().fingerprint());
+    }
+
+    private ExternalApiServiceImpl service() {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new ExternalApiServiceImpl(
+                client(base + "/v2"),
+                client(base + "/v6/latest"),
+                new ObjectMapper(),
+                new UpstreamResponseCache(cacheDir.toString()),
+                breaker("countries"),
+                breaker("exchange-rates"));
+    }
+
+    private static CircuitBreaker breaker(String name) {
+        return new CircuitBreaker(name, 3, Duration.ofMinutes(1), Clock.systemUTC());
+    }
+
+    private static RestClient client(String baseUrl) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(new JdkClientHttpRequestFactory())
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
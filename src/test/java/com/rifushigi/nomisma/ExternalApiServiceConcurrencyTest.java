@@ -0,0 +1,150 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.ExternalDataDTO;
+import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import com.rifushigi.nomisma.service.impl.ExternalApiServiceImpl;
+import com.rifushigi.nomisma.upstream.CircuitBreaker;
+import com.rifushigi.nomisma.upstream.UpstreamResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the upstream fetches against local stand-ins for the countries and
+ * exchange-rate APIs, each answering after an injected delay.
+ */
+class ExternalApiServiceConcurrencyTest {
+
+    // Far enough apart that a loaded build machine does not push the wall time past the sum
+    private static final long COUNTRIES_DELAY_MS = 1_500;
+    private static final long RATES_DELAY_MS = 1_700;
+
+    private static final String COUNTRIES = """
+            [{"name":"Nigeria","capital":"Abuja","region":"Africa","population":206139589,
+              "currencies":[{"code":"NGN"}],"flag":"https://flagcdn.com/ng.svg"}]""";
+    private static final String RATES = """
+            {"result":"success","base_code":"USD","rates":{"USD":1,"NGN":1600.23}}""";
+
+    private HttpServer server;
+
+    @TempDir
+    private Path cacheDir;
+
+    @BeforeEach
+    void startStandIns() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v2/all", exchange -> {
+            sleep(COUNTRIES_DELAY_MS);
+            respond(exchange, 200, COUNTRIES);
+        });
+        server.createContext("/v6/latest/USD", exchange -> {
+            sleep(RATES_DELAY_MS);
+            respond(exchange, 200, RATES);
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStandIns() {
+        server.stop(0);
+    }
+
+    @Test
+    void wallTimeIsTheSlowerCallNotTheSum() {
+        ExternalApiServiceImpl service = service();
+
+        long start = System.nanoTime();
+        ExternalDataDTO data = service.fetchAll();
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        List<String> names = new ArrayList<>();
+        assertEquals(1, service.streamCountries(data.countriesBody(), country -> names.add(country.name())));
+        assertEquals(List.of("Nigeria"), names);
+        assertEquals(1600.23, data.exchangeRate().rates().get("NGN"));
+        assertTrue(data.countriesFetchTime().toMillis() >= COUNTRIES_DELAY_MS);
+        assertTrue(data.exchangeRateFetchTime().toMillis() >= RATES_DELAY_MS);
+        assertTrue(wallMs >= RATES_DELAY_MS, "wall " + wallMs + " ms");
+        assertTrue(wallMs < COUNTRIES_DELAY_MS + RATES_DELAY_MS, "wall " + wallMs + " ms");
+    }
+
+    @Test
+    void failureCancelsTheOtherCall() {
+        server.removeContext("/v6/latest/USD");
+        server.createContext("/v6/latest/USD", exchange -> respond(exchange, 404, "{}"));
+        server.removeContext("/v2/all");
+        server.createContext("/v2/all", exchange -> {
+            sleep(5_000);
+            respond(exchange, 200, COUNTRIES);
+        });
+        ExternalApiServiceImpl service = service();
+
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, service::fetchAll);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // fetchAll only returns once both calls have ended, so this also shows the countries call was cut short
+        assertTrue(elapsedMs < 2_000, "fetchAll waited " + elapsedMs + " ms for a cancelled call");
+    }
+
+    private ExternalApiServiceImpl service() {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new ExternalApiServiceImpl(
+                client(base + "/v2"),
+                client(base + "/v6/latest"),
+                new ObjectMapper(),
+                new UpstreamResponseCache(cacheDir.toString()),
+                breaker("countries"),
+                breaker("exchange-rates"));
+    }
+
+    private static CircuitBreaker breaker(String name) {
+        return new CircuitBreaker(name, 3, Duration.ofMinutes(1), Clock.systemUTC());
+    }
+
+    private static RestClient client(String baseUrl) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(new JdkClientHttpRequestFactory())
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
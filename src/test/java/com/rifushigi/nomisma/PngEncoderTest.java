@@ -0,0 +1,77 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.image.PngEncoder;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trips images through the PNG encoder and ImageIO's decoder with every filter.
+ */
+class PngEncoderTest {
+
+    @Test
+    void everyFilterRoundTripsAnOpaqueImage() throws IOException {
+        BufferedImage image = sample(BufferedImage.TYPE_INT_RGB);
+        for (PngEncoder.Filter filter : PngEncoder.Filter.values()) {
+            assertSamePixels(image, decode(new PngEncoder(6, filter).encode(image)), filter);
+        }
+    }
+
+    @Test
+    void everyFilterRoundTripsATranslucentImage() throws IOException {
+        BufferedImage image = sample(BufferedImage.TYPE_INT_ARGB);
+        for (PngEncoder.Filter filter : PngEncoder.Filter.values()) {
+            BufferedImage decoded = decode(new PngEncoder(1, filter).encode(image));
+            assertTrue(decoded.getColorModel().hasAlpha());
+            assertSamePixels(image, decoded, filter);
+        }
+    }
+
+    @Test
+    void rejectsUnknownSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new PngEncoder(10, PngEncoder.Filter.UP));
+        assertThrows(IllegalArgumentException.class, () -> PngEncoder.Filter.parse("median"));
+        assertEquals(PngEncoder.Filter.PAETH, PngEncoder.Filter.parse(" Paeth "));
+    }
+
+    private static BufferedImage sample(int type) {
+        BufferedImage image = new BufferedImage(97, 61, type);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setPaint(new GradientPaint(0, 0, new Color(250, 251, 252, 200), 0, 61, new Color(37, 99, 235)));
+        g.fillRect(0, 0, 97, 61);
+        g.setColor(new Color(191, 219, 254, 120));
+        g.fillOval(10, 5, 50, 40);
+        g.dispose();
+        // Noise so no row is trivially compressible
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            image.setRGB(random.nextInt(97), random.nextInt(61), random.nextInt());
+        }
+        return image;
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual, PngEncoder.Filter filter) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), filter + " at " + x + "," + y);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.refresh.RefreshCadence;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RefreshCadenceTest {
+
+    private final RefreshCadence cadence = new RefreshCadence(
+            Duration.ofHours(1), 0.1, Duration.ofSeconds(30), Duration.ofMinutes(30));
+
+    @Test
+    void successWaitsTheIntervalWithinTheJitterRange() {
+        assertEquals(Duration.ofMinutes(54), cadence.nextDelay(0, 0.0));
+        assertEquals(Duration.ofHours(1), cadence.nextDelay(0, 0.5));
+        assertEquals(Duration.ofMinutes(66), cadence.nextDelay(0, 1.0));
+    }
+
+    @Test
+    void failuresBackOffExponentiallyUpToTheCap() {
+        assertEquals(Duration.ofSeconds(30), cadence.nextDelay(1, 0.5));
+        assertEquals(Duration.ofSeconds(60), cadence.nextDelay(2, 0.5));
+        assertEquals(Duration.ofSeconds(120), cadence.nextDelay(3, 0.5));
+        assertEquals(Duration.ofMinutes(30), cadence.nextDelay(10, 0.5));
+        assertEquals(Duration.ofMinutes(30), cadence.nextDelay(1_000, 0.5));
+    }
+
+    @Test
+    void rejectsJitterOutsideTheUnitRange() {
+        assertThrows(IllegalArgumentException.class, () -> new RefreshCadence(
+                Duration.ofHours(1), 1.0, Duration.ofSeconds(30), Duration.ofMinutes(30)));
+    }
+}
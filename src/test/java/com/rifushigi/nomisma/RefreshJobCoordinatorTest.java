@@ -0,0 +1,117 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.dto.RefreshJobResponseDTO;
+import com.rifushigi.nomisma.refresh.RefreshJob;
+import com.rifushigi.nomisma.refresh.RefreshJobCoordinator;
+import com.rifushigi.nomisma.refresh.RefreshPhase;
+import com.rifushigi.nomisma.repository.CountryBulkRepository.UpsertResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires a burst of concurrent refresh triggers and checks they all land on one job.
+ */
+class RefreshJobCoordinatorTest {
+
+    private static final int TRIGGERS = 50;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RefreshJobCoordinator coordinator = new RefreshJobCoordinator(executor);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentTriggersShareOneRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<RefreshJob>> triggers = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < TRIGGERS; i++) {
+                triggers.add(callers.submit(() -> {
+                    start.await();
+                    return coordinator.submit(job -> {
+                        runs.incrementAndGet();
+                        job.advance(RefreshPhase.WRITING);
+                        job.record(new UpsertResult(2, 1, 7));
+                        await(release);
+                    });
+                }));
+            }
+            start.countDown();
+        }
+
+        Set<RefreshJob> jobs = new HashSet<>();
+        for (Future<RefreshJob> trigger : triggers) {
+            jobs.add(trigger.get());
+        }
+        assertEquals(1, jobs.size());
+        RefreshJob job = jobs.iterator().next();
+
+        release.countDown();
+        RefreshJobResponseDTO done = awaitDone(job);
+        assertEquals(1, runs.get());
+        assertEquals("SUCCEEDED", done.phase());
+        assertEquals(TRIGGERS, done.triggers());
+        assertEquals(2, done.inserted());
+        assertEquals(1, done.updated());
+        assertEquals(7, done.unchanged());
+        assertEquals(job, coordinator.find(job.getId()).orElseThrow());
+
+        RefreshJob next = coordinator.submit(_ -> runs.incrementAndGet());
+        assertNotEquals(job.getId(), next.getId());
+        awaitDone(next);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void failedJobReportsTheErrorAndFreesTheSlot() throws Exception {
+        RefreshJob failed = coordinator.submit(_ -> {
+            throw new IllegalStateException("upstream down");
+        });
+
+        RefreshJobResponseDTO done = awaitDone(failed);
+        assertEquals("FAILED", done.phase());
+        assertEquals("upstream down", done.error());
+        assertTrue(done.durationMs() >= 0);
+
+        RefreshJob retry = coordinator.submit(_ -> { });
+        assertNotEquals(failed.getId(), retry.getId());
+        assertEquals("SUCCEEDED", awaitDone(retry).phase());
+    }
+
+    private static RefreshJobResponseDTO awaitDone(RefreshJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.getPhase().isTerminal() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return job.toResponse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import com.rifushigi.nomisma.image.ChartFormat;
+import com.rifushigi.nomisma.image.ChartMetric;
+import com.rifushigi.nomisma.image.ChartRequest;
+import com.rifushigi.nomisma.image.SummaryChartCache;
+import com.rifushigi.nomisma.image.SummaryImage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SummaryChartCacheTest {
+
+    private static final ChartRequest AFRICA = request("africa");
+    private static final ChartRequest EUROPE = request("europe");
+    private static final ChartRequest ASIA = request("asia");
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsShareOneRender() throws Exception {
+        SummaryChartCache cache = new SummaryChartCache(new TaskExecutorAdapter(pool), 8);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<SummaryImage> slow = () -> {
+            await(release);
+            return render();
+        };
+
+        CompletableFuture<SummaryImage> first = cache.get(AFRICA, 1, slow);
+        CompletableFuture<SummaryImage> second = cache.get(AFRICA, 1, slow);
+        release.countDown();
+
+        assertSame(first, second);
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void leastRecentlyUsedChartIsEvicted() throws Exception {
+        SummaryChartCache cache = new SummaryChartCache(new TaskExecutorAdapter(pool), 2);
+        CompletableFuture<SummaryImage> africa = cache.get(AFRICA, 1, this::render);
+        cache.get(EUROPE, 1, this::render).get(5, TimeUnit.SECONDS);
+        cache.get(AFRICA, 1, this::render).get(5, TimeUnit.SECONDS);
+        cache.get(ASIA, 1, this::render).get(5, TimeUnit.SECONDS);
+
+        assertSame(africa, cache.get(AFRICA, 1, this::render));
+        assertEquals(3, renders.get());
+        cache.get(EUROPE, 1, this::render).get(5, TimeUnit.SECONDS);
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    void newerDatasetVersionRendersAgain() throws Exception {
+        SummaryChartCache cache = new SummaryChartCache(new TaskExecutorAdapter(pool), 8);
+        SummaryImage old = cache.get(AFRICA, 1, this::render).get(5, TimeUnit.SECONDS);
+        SummaryImage current = cache.get(AFRICA, 2, this::render).get(5, TimeUnit.SECONDS);
+
+        assertNotSame(old, current);
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void failedRenderIsNotCached() throws Exception {
+        SummaryChartCache cache = new SummaryChartCache(new TaskExecutorAdapter(pool), 8);
+        CompletableFuture<SummaryImage> failed = cache.get(AFRICA, 1, () -> {
+            throw new IllegalStateException("no font");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        cache.get(AFRICA, 1, this::render).get(5, TimeUnit.SECONDS);
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void saturatedPoolFailsFast() {
+        AsyncTaskExecutor saturated = new TaskExecutorAdapter(_ -> {
+            throw new RejectedExecutionException("queue full");
+        });
+        SummaryChartCache cache = new SummaryChartCache(saturated, 8);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> cache.get(AFRICA, 1, this::render).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, e.getCause());
+    }
+
+    private SummaryImage render() {
+        renders.incrementAndGet();
+        return SummaryImage.of(new byte[] {(byte) 0x89, 'P', 'N', 'G', (byte) renders.get()}, Instant.now());
+    }
+
+    private static ChartRequest request(String region) {
+        return new ChartRequest(region, ChartMetric.GDP, 5, 900, 700, ChartFormat.PNG);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.image.ChartData;
+import com.rifushigi.nomisma.image.ChartFormat;
+import com.rifushigi.nomisma.image.ChartMetric;
+import com.rifushigi.nomisma.image.ChartRequest;
+import com.rifushigi.nomisma.image.SummaryChartRenderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times rendering and encoding the default summary chart with the template renderer
+ * against the full repaint and default ImageIO encoding it replaced, and against SVG,
+ * per image, along with the bytes allocated and the output size. Also checks both PNG
+ * renderers draw the same chart.
+ * Runs only with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SummaryChartRenderBenchmarkTest {
+
+    private static final int ROUNDS = 100;
+    private static final String[] FILTERS = {"none", "sub", "up", "paeth", "adaptive"};
+
+    private static final Color[] BAR_COLORS = {
+            new Color(37, 99, 235),
+            new Color(59, 130, 246),
+            new Color(96, 165, 250),
+            new Color(147, 197, 253),
+            new Color(191, 219, 254)
+    };
+
+    private final ChartData data = data();
+
+    @Test
+    void templateRendererDrawsTheSameChart() throws IOException {
+        BufferedImage before = decode(renderLikeBefore(data));
+        BufferedImage after = decode(new SummaryChartRenderer(6, "none").render(ChartRequest.DEFAULT, data));
+
+        assertEquals(before.getWidth(), after.getWidth());
+        assertEquals(before.getHeight(), after.getHeight());
+        int differing = 0;
+        int maxDelta = 0;
+        for (int y = 0; y < before.getHeight(); y++) {
+            for (int x = 0; x < before.getWidth(); x++) {
+                int a = before.getRGB(x, y);
+                int b = after.getRGB(x, y);
+                if (a != b) {
+                    differing++;
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        maxDelta = Math.max(maxDelta, Math.abs((a >> shift & 0xff) - (b >> shift & 0xff)));
+                    }
+                }
+            }
+        }
+        System.out.printf("pixels differing from the full repaint: %d, max channel delta %d%n", differing, maxDelta);
+        // Blending onto an opaque raster instead of an ARGB one may round a channel differently
+        assertTrue(maxDelta <= 2, "max channel delta " + maxDelta);
+    }
+
+    @Test
+    void compareFullRepaintAndTemplate() {
+        report("full repaint + ImageIO", measure(() -> renderLikeBefore(data)));
+        ChartRequest svg = new ChartRequest(null, ChartMetric.GDP, 5, 900, 700, ChartFormat.SVG);
+        SummaryChartRenderer svgRenderer = new SummaryChartRenderer(6, "none");
+        report("svg", measure(() -> svgRenderer.render(svg, data)));
+        for (String filter : FILTERS) {
+            for (int level : new int[] {1, 6, 9}) {
+                SummaryChartRenderer renderer = new SummaryChartRenderer(level, filter);
+                report("template, level " + level + ", " + filter, measure(() -> renderer.render(ChartRequest.DEFAULT, data)));
+            }
+        }
+    }
+
+    private static long[] measure(Supplier<byte[]> render) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int size = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            size = render.get().length;
+        }
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            render.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new long[]{elapsed / ROUNDS, allocated / ROUNDS, size};
+    }
+
+    private static void report(String label, long[] result) {
+        System.out.printf("%-32s %8.3f ms/image %10.1f KiB allocated/image %8.1f KiB%n",
+                label, result[0] / 1_000_000.0, result[1] / 1024.0, result[2] / 1024.0);
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+
+    private static ChartData data() {
+        List<ChartData.Bar> bars = new ArrayList<>();
+        String[] names = {"United States of America", "China", "Germany", "Japan", "India"};
+        for (int i = 0; i < names.length; i++) {
+            double gdp = 2.6e13 / (i + 1.3);
+            bars.add(new ChartData.Bar(names[i], gdp, ChartMetric.GDP.format(gdp)));
+        }
+        return new ChartData("Top 5 Countries by Estimated GDP", "2025-10-22 18:00:00 UTC", 250, bars);
+    }
+
+    // The renderer as it was before templates: everything repainted, new objects per bar
+    private static byte[] renderLikeBefore(ChartData data) {
+        int width = 900;
+        int height = 700;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+        g.setPaint(new GradientPaint(0, 0, new Color(250, 251, 252), 0, height, new Color(244, 246, 248)));
+        g.fillRect(0, 0, width, height);
+        g.setColor(new Color(59, 130, 246));
+        g.fillRect(0, 0, width, 8);
+        g.setColor(new Color(15, 23, 42));
+        g.setFont(new Font("SansSerif", Font.BOLD, 36));
+        g.drawString("Country Summary", 50, 80);
+        g.setFont(new Font("SansSerif", Font.PLAIN, 16));
+        g.setColor(new Color(100, 116, 139));
+        g.fillOval(50, 110, 4, 4);
+        g.drawString("Last Refreshed: " + data.lastRefreshed(), 65, 120);
+        g.fillOval(50, 140, 4, 4);
+        g.drawString("Total Countries: " + data.totalCountries(), 65, 150);
+        g.setColor(Color.WHITE);
+        g.fill(new RoundRectangle2D.Double(30, 190, width - 60, height - 250, 20, 20));
+        g.setColor(new Color(0, 0, 0, 8));
+        g.fill(new RoundRectangle2D.Double(32, 192, width - 64, height - 250, 20, 20));
+        g.setColor(new Color(15, 23, 42));
+        g.setFont(new Font("SansSerif", Font.BOLD, 24));
+        g.drawString(data.subtitle(), 50, 235);
+        g.setColor(new Color(226, 232, 240));
+        g.fillRect(50, 250, width - 100, 2);
+
+        double max = data.bars().stream().mapToDouble(ChartData.Bar::value).max().orElse(1);
+        for (int i = 0; i < data.bars().size(); i++) {
+            ChartData.Bar bar = data.bars().get(i);
+            Color color = BAR_COLORS[Math.min(i, BAR_COLORS.length - 1)];
+            int y = 300 + i * 75;
+            g.setColor(new Color(241, 245, 249));
+            g.fillOval(50, y - 25, 35, 35);
+            g.setColor(color);
+            g.setFont(new Font("SansSerif", Font.BOLD, 18));
+            String rank = String.valueOf(i + 1);
+            FontMetrics fm = g.getFontMetrics();
+            g.drawString(rank, 50 + (35 - fm.stringWidth(rank)) / 2, y - 25 + ((35 - fm.getHeight()) / 2) + fm.getAscent());
+            g.setFont(new Font("SansSerif", Font.BOLD, 17));
+            g.setColor(new Color(30, 41, 59));
+            g.drawString(bar.name(), 100, y - 5);
+            g.setFont(new Font("SansSerif", Font.BOLD, 16));
+            g.setColor(new Color(71, 85, 105));
+            g.drawString(bar.label(), width - 80 - g.getFontMetrics().stringWidth(bar.label()), y - 5);
+            g.setColor(new Color(241, 245, 249));
+            g.fill(new RoundRectangle2D.Double(100, y + 5, width - 200, 40, 40, 40));
+            int barWidth = (int) ((width - 200) * (max > 0 ? bar.value() / max : 0));
+            if (barWidth > 0) {
+                Color shade = new Color((int) (color.getRed() * 0.85f), (int) (color.getGreen() * 0.85f),
+                        (int) (color.getBlue() * 0.85f), color.getAlpha());
+                g.setPaint(new GradientPaint(100, y + 5, color, 100, y + 45, shade));
+                g.fill(new RoundRectangle2D.Double(100, y + 5, barWidth, 40, 40, 40));
+                g.setColor(new Color(255, 255, 255, 40));
+                g.fill(new RoundRectangle2D.Double(100, y + 5, barWidth, 20, 40, 40));
+            }
+        }
+
+        g.setFont(new Font("SansSerif", Font.PLAIN, 13));
+        g.setColor(new Color(148, 163, 184));
+        String footer = "Generated automatically by Nomisma API";
+        g.drawString(footer, (width - g.getFontMetrics().stringWidth(footer)) / 2, height - 35);
+        g.dispose();
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream(64 * 1024);
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.image.ChartData;
+import com.rifushigi.nomisma.image.ChartFormat;
+import com.rifushigi.nomisma.image.ChartMetric;
+import com.rifushigi.nomisma.image.ChartRequest;
+import com.rifushigi.nomisma.image.SummaryChartRenderer;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the SVG chart is well-formed and carries the PNG's labels, and how the
+ * {@code Accept} header picks a format.
+ */
+class SummaryChartSvgTest {
+
+    private final SummaryChartRenderer renderer = new SummaryChartRenderer(6, "none");
+
+    @Test
+    void svgCarriesTheSameLabels() throws Exception {
+        ChartData data = new ChartData("Top 3 Countries by Estimated GDP", "2025-10-22 18:00:00 UTC", 250, List.of(
+                new ChartData.Bar("Nigeria", 4.2e11, ChartMetric.GDP.format(4.2e11)),
+                new ChartData.Bar("Trinidad & Tobago", 2.1e10, ChartMetric.GDP.format(2.1e10)),
+                new ChartData.Bar("<Ghana>", 0, ChartMetric.GDP.format(0))));
+        ChartRequest request = new ChartRequest(null, ChartMetric.GDP, 3, 900, 700, ChartFormat.SVG);
+
+        Document svg = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(renderer.render(request, data)));
+
+        Element root = svg.getDocumentElement();
+        assertEquals("svg", root.getTagName());
+        assertEquals("0 0 900 700", root.getAttribute("viewBox"));
+        List<String> texts = texts(svg.getElementsByTagName("text"));
+        assertEquals(List.of(
+                "Country Summary",
+                "Last Refreshed: 2025-10-22 18:00:00 UTC",
+                "Total Countries: 250",
+                "Top 3 Countries by Estimated GDP",
+                "1", "Nigeria", "$420B",
+                "2", "Trinidad & Tobago", "$21B",
+                "3", "<Ghana>", "$0",
+                "Generated automatically by Nomisma API"), texts);
+        // A gradient fill per non-empty bar; the zero bar has only its track
+        long barFills = count(svg.getElementsByTagName("rect"), "url(#bar");
+        assertEquals(2, barFills);
+    }
+
+    @Test
+    void acceptHeaderPrefersPngUnlessSvgRanksHigher() {
+        assertEquals(ChartFormat.PNG, ChartFormat.negotiate(null));
+        assertEquals(ChartFormat.PNG, ChartFormat.negotiate("*/*"));
+        assertEquals(ChartFormat.PNG, ChartFormat.negotiate("image/avif,image/webp,image/svg+xml,image/*,*/*;q=0.8"));
+        assertEquals(ChartFormat.PNG, ChartFormat.negotiate("not a media type"));
+        assertEquals(ChartFormat.SVG, ChartFormat.negotiate("image/svg+xml"));
+        assertEquals(ChartFormat.SVG, ChartFormat.negotiate("image/svg+xml, image/png;q=0.5"));
+        assertEquals(ChartFormat.SVG, ChartFormat.negotiate("image/svg+xml, */*;q=0.1"));
+        assertEquals(ChartFormat.PNG, ChartFormat.negotiate("image/svg+xml;q=0.5, image/png"));
+    }
+
+    private static List<String> texts(NodeList nodes) {
+        return IntStream.range(0, nodes.getLength())
+                .mapToObj(i -> nodes.item(i).getTextContent())
+                .toList();
+    }
+
+    private static long count(NodeList nodes, String fillPrefix) {
+        return IntStream.range(0, nodes.getLength())
+                .filter(i -> ((Element) nodes.item(i)).getAttribute("fill").startsWith(fillPrefix))
+                .count();
+    }
+}
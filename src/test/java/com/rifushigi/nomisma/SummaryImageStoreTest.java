@@ -0,0 +1,49 @@
+package com.rifushigi.nomisma;
+
+import com.rifushigi.nomisma.image.SummaryImage;
+import com.rifushigi.nomisma.image.SummaryImageStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SummaryImageStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void publishedImageIsServedFromMemoryAndSurvivesARestart() throws IOException {
+        Path file = directory.resolve("images/summary.png");
+        SummaryImageStore store = new SummaryImageStore(file.toString());
+        assertTrue(store.get().isEmpty());
+
+        SummaryImage first = store.publish(new byte[] {1, 2, 3});
+        SummaryImage second = store.publish(new byte[] {4, 5, 6});
+
+        assertNotEquals(first.etag(), second.etag());
+        assertEquals(second, store.get().orElseThrow());
+        assertArrayEquals(new byte[] {4, 5, 6}, Files.readAllBytes(file));
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(1, files.count(), "temporary files are moved into place, not left behind");
+        }
+
+        SummaryImage reloaded = new SummaryImageStore(file.toString()).get().orElseThrow();
+        assertEquals(second.etag(), reloaded.etag());
+    }
+
+    @Test
+    void sameBytesKeepTheirEtag() {
+        assertEquals(SummaryImage.of(new byte[] {7}, Instant.EPOCH).etag(),
+                SummaryImage.of(new byte[] {7}, Instant.now()).etag());
+    }
+}
@@ -0,0 +1,166 @@
+package com.rifushigi.nomisma;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rifushigi.nomisma.exception.ServiceUnavailableException;
+import com.rifushigi.nomisma.service.impl.ExternalApiServiceImpl;
+import com.rifushigi.nomisma.upstream.CircuitBreaker;
+import com.rifushigi.nomisma.upstream.UpstreamResponseCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Drives the upstream circuit breakers against a local countries stand-in that can be
+ * switched into an outage, with a clock the test moves forward by hand.
+ */
+class UpstreamCircuitBreakerTest {
+
+    private static final String COUNTRIES = """
+            [{"name":"Nigeria","capital":"Abuja","region":"Africa","population":206139589,
+              "currencies":[{"code":"NGN"}],"flag":"https://flagcdn.com/ng.svg"}]""";
+    private static final String RATES = """
+            {"result":"success","base_code":"USD","rates":{"USD":1,"NGN":1600.23}}""";
+    private static final Duration OPEN_FOR = Duration.ofSeconds(30);
+
+    private HttpServer server;
+    private final AtomicInteger countryRequests = new AtomicInteger();
+    private volatile boolean countriesDown = true;
+    private final ManualClock clock = new ManualClock();
+    private final CircuitBreaker countriesBreaker = new CircuitBreaker("countries", 2, OPEN_FOR, clock);
+    private final CircuitBreaker ratesBreaker = new CircuitBreaker("exchange-rates", 2, OPEN_FOR, clock);
+
+    @TempDir
+    private Path cacheDir;
+
+    @BeforeEach
+    void startStandIns() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v2/all", exchange -> {
+            countryRequests.incrementAndGet();
+            if (countriesDown) {
+                respond(exchange, 503, "{}");
+            } else {
+                respond(exchange, 200, COUNTRIES);
+            }
+        });
+        server.createContext("/v6/latest/USD", exchange -> respond(exchange, 200, RATES));
+        server.start();
+    }
+
+    @AfterEach
+    void stopStandIns() {
+        server.stop(0);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndFailsFast() {
+        ExternalApiServiceImpl service = service();
+
+        assertThrows(ServiceUnavailableException.class, service::fetchAll);
+        assertEquals(CircuitBreaker.State.CLOSED, countriesBreaker.state());
+        assertThrows(ServiceUnavailableException.class, service::fetchAll);
+        assertEquals(CircuitBreaker.State.OPEN, countriesBreaker.state());
+        assertEquals(2, countryRequests.get());
+
+        // While open, the outage is not hit again
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ServiceUnavailableException.class, service::fetchAll);
+        }
+        assertEquals(2, countryRequests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, ratesBreaker.state());
+    }
+
+    @Test
+    void halfOpensToProbeAndClosesOnRecovery() {
+        ExternalApiServiceImpl service = service();
+        assertThrows(ServiceUnavailableException.class, service::fetchAll);
+        assertThrows(ServiceUnavailableException.class, service::fetchAll);
+
+        // A failed probe opens the circuit for another full period
+        clock.advance(OPEN_FOR);
+        assertThrows(ServiceUnavailableException.class, service::fetchAll);
+        assertEquals(3, countryRequests.get());
+        assertEquals(CircuitBreaker.State.OPEN, countriesBreaker.state());
+        assertEquals(clock.instant().plus(OPEN_FOR).toString(), countriesBreaker.status().retryAt());
+
+        clock.advance(OPEN_FOR);
+        countriesDown = false;
+        service.fetchAll();
+        assertEquals(4, countryRequests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, countriesBreaker.state());
+        assertEquals(0, countriesBreaker.status().consecutiveFailures());
+    }
+
+    private ExternalApiServiceImpl service() {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new ExternalApiServiceImpl(
+                client(base + "/v2"),
+                client(base + "/v6/latest"),
+                new ObjectMapper(),
+                new UpstreamResponseCache(cacheDir.toString()),
+                countriesBreaker,
+                ratesBreaker);
+    }
+
+    private static RestClient client(String baseUrl) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(new JdkClientHttpRequestFactory())
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class ManualClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2025-10-22T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}